@@ -0,0 +1,85 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// Asserts that a running game's tick allocates nothing once warmed up, so long
+// sessions do not build up garbage that ends in GC pauses and dropped frames.
+// Plays pseudo-random games on every built-in level, and on a generated maze
+// too large to precompute routes for, until the JIT has settled, then measures
+// the bytes the thread allocates across engine.step() calls.
+// Exits with status 1 if any tick allocated.
+//
+// Usage: AllocationCheck [warmup-ticks] [measured-ticks]
+public class AllocationCheck {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Classic games and the many-ghost mode
+    private static final int[] GHOST_COUNTS = {0, 256};
+
+    public static void main(String[] args) {
+        long warmupTicks = args.length > 0 ? Long.parseLong(args[0]) : 2_000_000;
+        long measuredTicks = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+
+        List<Level> levels = new ArrayList<>();
+        for (int level = 0; level < Levels.count(); level++) levels.add(Levels.get(level));
+        levels.add(Level.withDefaultSpawns("generated100x100", MazeGenerator.generate(100, 100, 100)));
+
+        boolean failed = false;
+        for (int ghosts : GHOST_COUNTS) {
+            for (int i = 0; i < levels.size(); i++) {
+                Level level = levels.get(i);
+                // Warm-up runs the same measured path, so the JIT has compiled it before it counts
+                run(level, i, ghosts, warmupTicks);
+                long[] result = run(level, i, ghosts, measuredTicks);
+                double perTick = result[0] == 0 ? 0 : (double) result[1] / result[0];
+                System.out.printf("%s %s: %d ticks, %d bytes allocated, %.4f B/tick%n",
+                        level.getName(), ghosts == 0 ? "classic" : ghosts + " ghosts", result[0], result[1], perTick);
+                if (result[1] != 0) failed = true;
+            }
+        }
+        if (failed) {
+            System.out.println("FAIL: the steady-state tick allocates");
+            System.exit(1);
+        }
+        System.out.println("OK: zero bytes allocated per tick");
+    }
+
+    // Returns {ticks measured, bytes allocated}. Setting up a new game when one
+    // ends allocates by design, so only the step() calls themselves are measured.
+    private static long[] run(Level level, int index, int ghosts, long ticks) {
+        long thread = Thread.currentThread().getId();
+        int random = 0x7F4A7C15 + index;
+        long measured = 0;
+        long allocated = 0;
+        GameEngine engine = new GameEngine(index, level, GameEngine.newSeed(), GhostRules.DEFAULT, ghosts);
+        // The first ticks of each game are left out: ghosts leave the pen and
+        // lazily initialised state settles
+        long settleUntil = engine.getTicks() + 60;
+        long done = 0;
+        while (done < ticks) {
+            if (engine.isOver()) {
+                engine = new GameEngine(index, level, GameEngine.newSeed(), GhostRules.DEFAULT, ghosts);
+                settleUntil = engine.getTicks() + 60;
+            }
+            Direction input = null;
+            if ((done & 15) == 0) {
+                random ^= random << 13;
+                random ^= random >>> 17;
+                random ^= random << 5;
+                input = DIRECTIONS[random & 3];
+            }
+            if (engine.getTicks() >= settleUntil) {
+                long before = THREADS.getThreadAllocatedBytes(thread);
+                engine.step(input);
+                allocated += THREADS.getThreadAllocatedBytes(thread) - before;
+                measured++;
+            } else {
+                engine.step(input);
+            }
+            done++;
+        }
+        return new long[]{measured, allocated};
+    }
+}
@@ -0,0 +1,113 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// Minimal JMH-style runner: per benchmark, timed warm-up and measurement
+// iterations on the calling thread, reporting throughput and bytes allocated
+// per operation (what JMH's -prof gc reports as gc.alloc.rate.norm).
+public class BenchmarkHarness {
+
+    // One benchmark invocation; the return value is consumed so the JIT cannot drop the work
+    public interface Operation {
+        long run();
+    }
+
+    public static class Result {
+        public final String name;
+        public final double opsPerSecond;
+        public final double error;
+        public final double bytesPerOp;
+        public final double allocMbPerSecond;
+
+        Result(String name, double opsPerSecond, double error, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.error = error;
+            this.bytesPerOp = bytesPerOp;
+            this.allocMbPerSecond = bytesPerOp * opsPerSecond / (1024.0 * 1024.0);
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final Pattern filter;
+    private final List<Result> results = new ArrayList<>();
+    private long sink;
+
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.filter = Pattern.compile(filter == null ? ".*" : filter);
+    }
+
+    // setup runs once per iteration, outside the timed region, and returns the operation to time
+    public void run(String name, Supplier<Operation> setup) {
+        if (!filter.matcher(name).find()) return;
+
+        for (int i = 0; i < warmupIterations; i++) iteration(setup.get());
+
+        double[] throughput = new double[measurementIterations];
+        double bytes = 0;
+        long ops = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            long[] measured = iteration(setup.get());
+            throughput[i] = measured[0] * 1e9 / measured[1];
+            ops += measured[0];
+            bytes += measured[2];
+        }
+
+        double mean = 0;
+        for (double t : throughput) mean += t;
+        mean /= throughput.length;
+        double variance = 0;
+        for (double t : throughput) variance += (t - mean) * (t - mean);
+        double stdDev = throughput.length > 1 ? Math.sqrt(variance / (throughput.length - 1)) : 0;
+
+        Result result = new Result(name, mean, stdDev, bytes / ops);
+        results.add(result);
+        System.out.println(format(result));
+    }
+
+    // Returns {operations, elapsed nanos, allocated bytes}
+    private long[] iteration(Operation op) {
+        long thread = Thread.currentThread().getId();
+        long ops = 0;
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long deadline = start + iterationNanos;
+        long now;
+        do {
+            // Check the clock every 64 calls so timing overhead stays out of small operations
+            for (int i = 0; i < 64; i++) sink += op.run();
+            ops += 64;
+            now = System.nanoTime();
+        } while (now < deadline);
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return new long[]{ops, now - start, allocated};
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public long getSink() {
+        return sink;
+    }
+
+    public static String header() {
+        return String.format(Locale.ROOT, "%-44s %16s %12s %14s %14s", "Benchmark", "ops/s", "error", "B/op", "alloc MB/s");
+    }
+
+    private static String format(Result r) {
+        return String.format(Locale.ROOT, "%-44s %16.1f %12.1f %14.2f %14.2f",
+                r.name, r.opsPerSecond, r.error, r.bytesPerOp, r.allocMbPerSecond);
+    }
+}
@@ -0,0 +1,252 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Benchmarks for the game-loop hot paths on the three built-in levels and on
+// generated mazes up to 200x200.
+//
+// Usage: GameLoopBenchmarks [filter-regex] [warmup-iterations] [measurement-iterations] [iteration-ms]
+public class GameLoopBenchmarks {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int[] GENERATED_SIZES = {21, 50, 100, 200};
+    private static final int[] GHOST_COUNTS = {4, 64, 256, 1024};
+
+    private static class Maze {
+        final String name;
+        final int level;
+        final int[][] map;
+
+        Maze(String name, int level, int[][] map) {
+            this.name = name;
+            this.level = level;
+            this.map = map;
+        }
+
+        GameEngine newEngine() {
+            return level >= 0 ? new GameEngine(level) : new GameEngine(map);
+        }
+    }
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : ".*";
+        int warmup = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int measure = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long iterationMs = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+
+        List<Maze> mazes = new ArrayList<>();
+        for (int level = 0; level < Levels.count(); level++) {
+            mazes.add(new Maze("level" + (level + 1), level, Levels.get(level).getMap()));
+        }
+        for (int size : GENERATED_SIZES) {
+            mazes.add(new Maze("generated" + size + "x" + size, -1, MazeGenerator.generate(size, size, size)));
+        }
+
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, measure, iterationMs, filter);
+        System.out.println(BenchmarkHarness.header());
+
+        for (Maze maze : mazes) {
+            if (RoutingTable.fits(maze.map)) {
+                harness.run("routingTable.build:" + maze.name, () -> () -> new RoutingTable(maze.map).firstMove(1, 1, 9, 9));
+                harness.run("routingTable.firstMove:" + maze.name, () -> firstMove(maze));
+            }
+            harness.run("flowFields.firstMove:" + maze.name, () -> flowFieldMove(maze));
+            harness.run("ghost.bfsDirection:" + maze.name, () -> bfsDirection(maze));
+            for (Ghost.GhostType type : Ghost.GhostType.values()) {
+                harness.run("ghost.update." + type + ":" + maze.name, () -> ghostUpdate(maze, type));
+            }
+            harness.run("pacman.canMove:" + maze.name, () -> canMove(maze));
+            harness.run("pacman.update:" + maze.name, () -> pacmanUpdate(maze));
+            harness.run("pellets.collision:" + maze.name, () -> pelletCollision(maze));
+            harness.run("engine.step:" + maze.name, () -> step(maze));
+            harness.run("camera.visibleTiles:" + maze.name, () -> visibleTiles(maze));
+        }
+
+        // Many-ghost mode: cost per ghost should stay flat as the count grows, on a
+        // small arena and on a maze too large for an eager routing table
+        int[][] arena = MazeGenerator.generate(31, 33, 31);
+        int[][] largeArena = MazeGenerator.generate(100, 100, 100);
+        for (int ghosts : GHOST_COUNTS) {
+            harness.run("engine.step.ghosts" + ghosts + ":generated31x33", () -> manyGhosts(arena, ghosts));
+            harness.run("engine.step.ghosts" + ghosts + ":generated100x100", () -> manyGhosts(largeArena, ghosts));
+        }
+
+        System.out.println("# sink " + harness.getSink());
+    }
+
+    // Open tiles of the maze as tile indices, for picking random positions
+    private static int[] openTiles(int[][] map) {
+        int cols = map[0].length;
+        int count = 0;
+        for (int[] row : map) for (int t : row) if (t == 0) count++;
+        int[] tiles = new int[count];
+        int i = 0;
+        for (int r = 0; r < map.length; r++)
+            for (int c = 0; c < cols; c++)
+                if (map[r][c] == 0) tiles[i++] = r * cols + c;
+        return tiles;
+    }
+
+    private static int nextRandom(int x) {
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        return x;
+    }
+
+    private static BenchmarkHarness.Operation firstMove(Maze maze) {
+        RoutingTable routes = new RoutingTable(maze.map);
+        int[] tiles = openTiles(maze.map);
+        int cols = maze.map[0].length;
+        int[] state = {0x9E3779B9};
+        return () -> {
+            int x = state[0] = nextRandom(state[0]);
+            int from = tiles[(x >>> 1) % tiles.length];
+            int to = tiles[(x >>> 11) % tiles.length];
+            return routes.firstMove(from / cols, from % cols, to / cols, to % cols);
+        };
+    }
+
+    // Random sources towards a handful of targets, like one tick of ghosts
+    // chasing: after the first pass every lookup hits a cached distance map
+    private static BenchmarkHarness.Operation flowFieldMove(Maze maze) {
+        FlowFields fields = new FlowFields(maze.map);
+        int[] tiles = openTiles(maze.map);
+        int cols = maze.map[0].length;
+        int[] targets = new int[8];
+        for (int i = 0; i < targets.length; i++) targets[i] = tiles[i * (tiles.length / targets.length)];
+        int[] state = {0x510E527F};
+        return () -> {
+            int x = state[0] = nextRandom(state[0]);
+            int from = tiles[(x >>> 1) % tiles.length];
+            int to = targets[x & 7];
+            return fields.firstMove(from / cols, from % cols, to / cols, to % cols);
+        };
+    }
+
+    private static BenchmarkHarness.Operation bfsDirection(Maze maze) {
+        GameEngine engine = maze.newEngine();
+        Ghost ghost = engine.getGhosts().get(0);
+        PacMan pacman = engine.getPacMan();
+        // One update sets the ghost's chase target; the benchmark then repeats the decision
+        ghost.update(pacman.getX(), pacman.getY(), pacman.getDirection(), ghost.getX(), ghost.getY());
+        return ghost::bfsDirection;
+    }
+
+    private static BenchmarkHarness.Operation ghostUpdate(Maze maze, Ghost.GhostType type) {
+        GameEngine engine = maze.newEngine();
+        Ghost ghost = engine.getGhosts().get(type.ordinal());
+        Ghost blinky = engine.getGhosts().get(0);
+        int[] tiles = openTiles(maze.map);
+        int cols = maze.map[0].length;
+        int tile = engine.TILE_SIZE;
+        int[] state = {0x2545F491, 0};
+        return () -> {
+            // Pac-Man hops to a new random tile every 64 ticks
+            if ((state[1]++ & 63) == 0) state[0] = nextRandom(state[0]);
+            int t = tiles[(state[0] >>> 1) % tiles.length];
+            double pacX = (t % cols) * tile + tile / 2.0;
+            double pacY = (t / cols) * tile + tile / 2.0;
+            ghost.update(pacX, pacY, DIRECTIONS[state[0] & 3], blinky.getX(), blinky.getY());
+            return (long) ghost.getX();
+        };
+    }
+
+    private static BenchmarkHarness.Operation canMove(Maze maze) {
+        GameEngine engine = maze.newEngine();
+        PacMan pacman = engine.getPacMan();
+        double width = engine.COLS * engine.TILE_SIZE;
+        double height = engine.ROWS * engine.TILE_SIZE;
+        int[] state = {0x68E31DA4};
+        return () -> {
+            int x = state[0] = nextRandom(state[0]);
+            double nx = ((x >>> 1) % 10_000) / 10_000.0 * width;
+            double ny = ((x >>> 8) % 10_000) / 10_000.0 * height;
+            return pacman.canMove(nx, ny, engine) ? 1 : 0;
+        };
+    }
+
+    private static BenchmarkHarness.Operation pacmanUpdate(Maze maze) {
+        GameEngine engine = maze.newEngine();
+        PacMan pacman = engine.getPacMan();
+        int[] state = {0x1B873593, 0};
+        return () -> {
+            if ((state[1]++ & 31) == 0) {
+                state[0] = nextRandom(state[0]);
+                pacman.setDirection(DIRECTIONS[state[0] & 3]);
+            }
+            pacman.update(engine);
+            return (long) pacman.getX();
+        };
+    }
+
+    private static BenchmarkHarness.Operation pelletCollision(Maze maze) {
+        GameEngine engine = maze.newEngine();
+        PacMan pacman = engine.getPacMan();
+        PelletGrid pellets = engine.getPellets();
+        int tile = engine.TILE_SIZE;
+        return () -> {
+            // The per-tick check Game/GameEngine runs: only the tile under Pac-Man's center
+            int pr = (int) (pacman.getY() / tile);
+            int pc = (int) (pacman.getX() / tile);
+            return pellets.has(pr, pc)
+                    && pacman.checkPelletCollision(pc * tile + tile / 2.0, pr * tile + tile / 2.0) ? 1 : 0;
+        };
+    }
+
+    // The tile and ghost iteration GameRenderer does per redraw, without the
+    // drawing: cost should stay flat as the maze grows past the view size
+    private static BenchmarkHarness.Operation visibleTiles(Maze maze) {
+        GameEngine engine = maze.newEngine();
+        Camera camera = new Camera(engine.COLS, engine.ROWS, engine.TILE_SIZE);
+        PelletGrid pellets = engine.getPellets();
+        int[] tiles = openTiles(maze.map);
+        int cols = maze.map[0].length;
+        int tile = engine.TILE_SIZE;
+        int[] state = {0x3C6EF372};
+        return () -> {
+            int t = tiles[((state[0] = nextRandom(state[0])) >>> 1) % tiles.length];
+            camera.follow((t % cols) * tile + tile / 2.0, (t / cols) * tile + tile / 2.0);
+            long drawn = 0;
+            for (int r = camera.firstRow(); r <= camera.lastRow(); r++) {
+                for (int c = camera.firstCol(); c <= camera.lastCol(); c++) {
+                    if (engine.map[r][c] == 1 || pellets.has(r, c)) drawn++;
+                }
+            }
+            SpatialGrid grid = engine.getGrid();
+            for (int r = camera.firstRow(); r <= camera.lastRow(); r++) {
+                for (int c = camera.firstCol(); c <= camera.lastCol(); c++) {
+                    for (int id = grid.first(grid.cellIndex(r, c)); id != -1; id = grid.next(id)) drawn++;
+                }
+            }
+            return drawn;
+        };
+    }
+
+    // Engine ticks with Pac-Man held still in a corner so the game rarely ends;
+    // a caught Pac-Man starts a new game, which shows up in B/op
+    private static BenchmarkHarness.Operation manyGhosts(int[][] map, int ghosts) {
+        Level arena = Level.withDefaultSpawns("arena", map);
+        long[] seed = {1};
+        GameEngine[] engine = {new GameEngine(-1, arena, seed[0], GhostRules.DEFAULT, ghosts)};
+        return () -> {
+            if (engine[0].isOver()) engine[0] = new GameEngine(-1, arena, ++seed[0], GhostRules.DEFAULT, ghosts);
+            return engine[0].step(null).ordinal();
+        };
+    }
+
+    // Full simulated tick with pseudo-random input; a finished game is replaced
+    // by a new one, which shows up in B/op as a small per-game setup cost
+    private static BenchmarkHarness.Operation step(Maze maze) {
+        GameEngine[] engine = {maze.newEngine()};
+        int[] state = {0x7F4A7C15, 0};
+        return () -> {
+            if (engine[0].isOver()) engine[0] = maze.newEngine();
+            Direction input = null;
+            if ((state[1]++ & 15) == 0) {
+                state[0] = nextRandom(state[0]);
+                input = DIRECTIONS[state[0] & 3];
+            }
+            return engine[0].step(input).ordinal();
+        };
+    }
+}
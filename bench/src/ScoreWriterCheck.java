@@ -0,0 +1,83 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Asserts how ScoreWriter sorts save failures, with the database replaced by
+// an inserter that throws. A batch failing with a transient error, even one
+// wrapped in a BatchUpdateException as MySQL does for lost connections and
+// lock-wait timeouts, must stay in the journal for a retry; only rows the
+// database refuses as bad data go to the dead-letter file. Runs against a
+// temporary user.home, so a real journal is never touched.
+// Exits with status 1 if any case fails.
+//
+// Usage: ScoreWriterCheck
+public class ScoreWriterCheck {
+
+    private static boolean failed;
+
+    public static void main(String[] args) throws Exception {
+        Path home = Files.createTempDirectory("score-writer-check");
+        System.setProperty("user.home", home.toString());
+
+        // A socket timeout inside executeBatch: SQLState 08S01, with the cause chained as a next exception
+        BatchUpdateException lostConnection = new BatchUpdateException("Communications link failure", "08S01", 0, new int[0]);
+        lostConnection.setNextException(new SQLException("Read timed out", "08S01"));
+        List<ScoreWriter.PendingScore> pending = results("alice", "bob", "carol");
+        ScoreWriter.appendJournal(ScoreWriter.JOURNAL, pending);
+        boolean saved = ScoreWriter.saveNext(pending, rows -> {
+            throw lostConnection;
+        }, 0);
+        check("transient batch failure is not saved", !saved);
+        check("transient batch failure keeps every row pending", pending.size() == 3);
+        check("transient batch failure keeps every row in the journal", journaled() == 3);
+        check("transient batch failure rejects nothing", !Files.exists(ScoreWriter.DEAD_LETTERS));
+
+        // A lock-wait timeout, SQLState 40001, behind a generic BatchUpdateException
+        BatchUpdateException lockWait = new BatchUpdateException("Batch failed", null, 0, new int[0]);
+        lockWait.setNextException(new SQLException("Lock wait timeout exceeded", "40001"));
+        check("lock-wait timeout is transient", !ScoreWriter.isPermanent(lockWait));
+
+        // One row breaks a constraint; the batch is retried row by row and only that row is rejected
+        List<String> inserted = new ArrayList<>();
+        saved = ScoreWriter.saveNext(pending, rows -> {
+            for (ScoreWriter.PendingScore r : rows) {
+                if (r.getUsername().equals("bob")) {
+                    BatchUpdateException duplicate = new BatchUpdateException("Batch failed", null, 0, new int[0]);
+                    duplicate.setNextException(new SQLException("Duplicate entry", "23000"));
+                    throw duplicate;
+                }
+            }
+            for (ScoreWriter.PendingScore r : rows) inserted.add(r.getUsername());
+        }, 0);
+        check("rejected row does not block the batch", saved);
+        check("other rows are saved", inserted.equals(List.of("alice", "carol")));
+        check("journal is emptied", pending.isEmpty() && journaled() == 0);
+        check("rejected row is dead-lettered", ScoreWriter.readJournal(ScoreWriter.DEAD_LETTERS).size() == 1);
+
+        if (failed) {
+            System.out.println("FAIL: ScoreWriter misclassified a save failure");
+            System.exit(1);
+        }
+        System.out.println("OK: transient failures stay journaled, rejected rows are dead-lettered");
+    }
+
+    private static List<ScoreWriter.PendingScore> results(String... users) {
+        List<ScoreWriter.PendingScore> results = new ArrayList<>();
+        LocalDateTime playedAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (String user : users) results.add(new ScoreWriter.PendingScore(user, 100, 30, 0, false, playedAt));
+        return results;
+    }
+
+    private static int journaled() {
+        return ScoreWriter.readJournal(ScoreWriter.JOURNAL).size();
+    }
+
+    private static void check(String name, boolean ok) {
+        System.out.println((ok ? "ok    " : "FAIL  ") + name);
+        if (!ok) failed = true;
+    }
+}
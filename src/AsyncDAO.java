@@ -0,0 +1,70 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Non-blocking front for the DAOs, for calls made from the FX thread. Each call
+// returns a CompletableFuture and runs on a small pool of daemon threads: at
+// most THREADS calls run at once and up to QUEUE more wait, beyond which calls
+// fail straight away. A call that takes longer than its timeout completes
+// with a TimeoutException. Cancelling the future, or a timeout, interrupts a
+// running call (a connection wait gives up at once) and drops a queued one.
+//
+// Handle results on the FX thread with future.whenCompleteAsync(..., Platform::runLater).
+public class AsyncDAO {
+
+    public static final long DEFAULT_TIMEOUT_MS = 10_000;
+
+    private static final int THREADS = 4;
+    private static final int QUEUE = 64;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            THREADS, THREADS, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE), r -> {
+        Thread t = new Thread(r, "db-async-" + threadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    // True if the username and password match
+    public static CompletableFuture<Boolean> login(String username, String password) {
+        return call(() -> UserDAO.authenticate(username, password), DEFAULT_TIMEOUT_MS);
+    }
+
+    // True if the user was added, false if the username is taken
+    public static CompletableFuture<Boolean> register(User user) {
+        return call(() -> UserDAO.insert(user), DEFAULT_TIMEOUT_MS);
+    }
+
+    public static CompletableFuture<HistoryDAO.Page> historyPage(String username, int index, HistoryDAO.Page previous) {
+        return call(() -> HistoryDAO.getPage(username, index, previous), DEFAULT_TIMEOUT_MS);
+    }
+
+    public static <T> CompletableFuture<T> call(Callable<T> task, long timeoutMs) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IllegalStateException(
+                    "Too many database calls waiting (" + executor.getQueue().size() + " queued)", e));
+            return result;
+        }
+        result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        // Finishing early (cancelled or timed out) stops the work as far as JDBC allows
+        result.whenComplete((value, error) -> {
+            if (error != null) running.cancel(true);
+        });
+        return result;
+    }
+}
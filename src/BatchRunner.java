@@ -0,0 +1,295 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Plays many seeded headless games in parallel and reports how they went, for
+// tuning GhostRules and comparing levels. Games are split across a fork/join
+// pool; each game derives its engine seed and its input stream from its own
+// index, so results do not depend on the thread count and no RNG is shared.
+//
+// Usage: BatchRunner [--games N] [--level N|all] [--policy random|greedy]
+//                    [--max-seconds S] [--seed S] [--threads N] [--ghosts N]
+//                    [--pinky-lead N] [--inky-lead N] [--inky-scale N]
+//                    [--clyde-radius N] [--scatter S] [--chase S]
+public class BatchRunner {
+
+    // Games per leaf task: small enough to balance well, big enough to amortize forking
+    private static final int GAMES_PER_TASK = 16;
+
+    public enum Policy { RANDOM, GREEDY }
+
+    private final int level;
+    private final int games;
+    private final Policy policy;
+    private final long maxTicks;
+    private final long seed;
+    private final GhostRules rules;
+    private final int ghostCount;
+
+    public BatchRunner(int level, int games, Policy policy, long maxTicks, long seed, GhostRules rules, int ghostCount) {
+        this.level = level;
+        this.games = games;
+        this.policy = policy;
+        this.maxTicks = maxTicks;
+        this.seed = seed;
+        this.rules = rules;
+        this.ghostCount = ghostCount;
+    }
+
+    // Aggregated outcome of a set of games; merged up the fork/join tree
+    public static class Stats {
+        final int rows, cols;
+        final int pelletsPerGame;
+        final int maxSeconds;
+        long games, won, lost, timedOut;
+        long ticks;
+        long pelletsEaten;
+        int maxPelletsEaten;
+        final long[] survivalSeconds; // games by whole seconds survived
+        final long[] capturesByGhost = new long[Ghost.GhostType.values().length];
+        final long[] captureTiles;    // losses by Pac-Man's tile, r * cols + c
+
+        Stats(int rows, int cols, int pelletsPerGame, int maxSeconds) {
+            this.rows = rows;
+            this.cols = cols;
+            this.pelletsPerGame = pelletsPerGame;
+            this.maxSeconds = maxSeconds;
+            this.survivalSeconds = new long[maxSeconds + 1];
+            this.captureTiles = new long[rows * cols];
+        }
+
+        void add(GameEngine engine) {
+            games++;
+            ticks += engine.getTicks();
+            survivalSeconds[Math.min(engine.getElapsedSeconds(), maxSeconds)]++;
+            int eaten = pelletsPerGame - engine.getPellets().remaining();
+            pelletsEaten += eaten;
+            maxPelletsEaten = Math.max(maxPelletsEaten, eaten);
+            switch (engine.getStatus()) {
+                case WON -> won++;
+                case RUNNING -> timedOut++;
+                case LOST -> {
+                    lost++;
+                    capturesByGhost[engine.getCaughtBy().getType().ordinal()]++;
+                    int r = (int) (engine.getPacMan().getY() / engine.TILE_SIZE);
+                    int c = (int) (engine.getPacMan().getX() / engine.TILE_SIZE);
+                    captureTiles[r * cols + c]++;
+                }
+            }
+        }
+
+        Stats merge(Stats other) {
+            games += other.games;
+            won += other.won;
+            lost += other.lost;
+            timedOut += other.timedOut;
+            ticks += other.ticks;
+            pelletsEaten += other.pelletsEaten;
+            maxPelletsEaten = Math.max(maxPelletsEaten, other.maxPelletsEaten);
+            for (int i = 0; i < survivalSeconds.length; i++) survivalSeconds[i] += other.survivalSeconds[i];
+            for (int i = 0; i < capturesByGhost.length; i++) capturesByGhost[i] += other.capturesByGhost[i];
+            for (int i = 0; i < captureTiles.length; i++) captureTiles[i] += other.captureTiles[i];
+            return this;
+        }
+
+        // Seconds survived at percentile p (0-100)
+        int survivalPercentile(double p) {
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * games));
+            long seen = 0;
+            for (int s = 0; s < survivalSeconds.length; s++) {
+                seen += survivalSeconds[s];
+                if (seen >= rank) return s;
+            }
+            return maxSeconds;
+        }
+    }
+
+    private class Batch extends RecursiveTask<Stats> {
+        // ForkJoinTask is Serializable; batches never are serialized
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        Batch(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                Stats stats = newStats();
+                for (int i = from; i < to; i++) stats.add(play(i));
+                return stats;
+            }
+            int mid = (from + to) >>> 1;
+            Batch left = new Batch(from, mid);
+            left.fork();
+            Stats right = new Batch(mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private Stats newStats() {
+        Level layout = Levels.get(level);
+        return new Stats(layout.getRows(), layout.getCols(), layout.getPelletCount(),
+                (int) (maxTicks / GameClock.TICKS_PER_SECOND));
+    }
+
+    public Stats run(ForkJoinPool pool) {
+        return pool.invoke(new Batch(0, games));
+    }
+
+    // Plays game `index` to the end or to maxTicks
+    GameEngine play(int index) {
+        SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+        GameEngine engine = new GameEngine(level, random.nextLong(), rules, ghostCount);
+        while (!engine.isOver() && engine.getTicks() < maxTicks) {
+            engine.step(policy == Policy.GREEDY ? greedyInput(engine, random) : randomInput(random));
+        }
+        return engine;
+    }
+
+    // Turns in a random direction about four times a second
+    private static Direction randomInput(SplittableRandom random) {
+        return random.nextInt(16) == 0 ? Direction.of(random.nextInt(4)) : null;
+    }
+
+    // Heads for the nearest pellet (by Manhattan distance) along the shortest path,
+    // with an occasional random turn so Pac-Man does not stay wedged on a corner
+    private static Direction greedyInput(GameEngine engine, SplittableRandom random) {
+        if ((engine.getTicks() & 7) != 0) return null;
+        if (random.nextInt(10) == 0) return Direction.of(random.nextInt(4));
+        PacMan pacman = engine.getPacMan();
+        int row = (int) (pacman.getY() / engine.TILE_SIZE);
+        int col = (int) (pacman.getX() / engine.TILE_SIZE);
+        PelletGrid pellets = engine.getPellets();
+        int best = Integer.MAX_VALUE, bestRow = -1, bestCol = -1;
+        for (int r = 0; r < engine.ROWS; r++) {
+            for (int c = 0; c < engine.COLS; c++) {
+                if (!pellets.has(r, c)) continue;
+                int d = Math.abs(r - row) + Math.abs(c - col);
+                if (d < best) {
+                    best = d;
+                    bestRow = r;
+                    bestCol = c;
+                }
+            }
+        }
+        if (bestRow < 0) return null;
+        int move = engine.firstMove(row, col, bestRow, bestCol);
+        return move < 0 ? null : Direction.of(move);
+    }
+
+    public String report(Stats stats, long wallNanos, int threads) {
+        StringBuilder sb = new StringBuilder();
+        double seconds = wallNanos / 1e9;
+        sb.append(String.format(Locale.ROOT, "Level %d: %d games, policy %s, max %ds, seed %d%n",
+                level + 1, stats.games, policy.name().toLowerCase(Locale.ROOT), stats.maxSeconds, seed));
+        sb.append("Rules: ").append(rules);
+        if (ghostCount > 0) sb.append(" ghosts=").append(ghostCount);
+        sb.append(System.lineSeparator());
+        sb.append(String.format(Locale.ROOT, "Threads: %d  wall %.2fs  %.0f games/s  %.1fM ticks/s%n",
+                threads, seconds, stats.games / seconds, stats.ticks / seconds / 1e6));
+        sb.append(String.format(Locale.ROOT, "Outcome: won %d (%.1f%%)  lost %d (%.1f%%)  timed out %d (%.1f%%)%n",
+                stats.won, percent(stats.won, stats.games), stats.lost, percent(stats.lost, stats.games),
+                stats.timedOut, percent(stats.timedOut, stats.games)));
+        sb.append(String.format(Locale.ROOT, "Survival (s): mean %.1f  p50 %d  p90 %d  p99 %d%n",
+                stats.ticks / (double) Math.max(1, stats.games) / GameClock.TICKS_PER_SECOND,
+                stats.survivalPercentile(50), stats.survivalPercentile(90), stats.survivalPercentile(99)));
+        sb.append(String.format(Locale.ROOT, "Pellets eaten: mean %.1f of %d (%.1f%%)  max %d%n",
+                stats.pelletsEaten / (double) Math.max(1, stats.games), stats.pelletsPerGame,
+                percent(stats.pelletsEaten, stats.games * stats.pelletsPerGame), stats.maxPelletsEaten));
+
+        sb.append("Captures by ghost:");
+        for (Ghost.GhostType type : Ghost.GhostType.values()) {
+            sb.append(String.format(Locale.ROOT, "  %s %.1f%%", type, percent(stats.capturesByGhost[type.ordinal()], stats.lost)));
+        }
+        sb.append(System.lineSeparator());
+
+        // Heat map: digits 1-9 scale with the busiest tile, '.' open with no captures, '#' wall
+        long most = 0;
+        for (long n : stats.captureTiles) most = Math.max(most, n);
+        sb.append("Capture locations (1-9 = share of the busiest tile):").append(System.lineSeparator());
+        int[][] map = Levels.get(level).getMap();
+        for (int r = 0; r < stats.rows; r++) {
+            for (int c = 0; c < stats.cols; c++) {
+                long n = stats.captureTiles[r * stats.cols + c];
+                if (map[r][c] != 0) sb.append('#');
+                else if (n == 0) sb.append('.');
+                else sb.append((char) ('0' + Math.max(1, (int) Math.round(9.0 * n / most))));
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    public static void main(String[] args) {
+        int games = 1000;
+        String levelArg = "all";
+        Policy policy = Policy.RANDOM;
+        double maxSeconds = 120;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int ghostCount = 0;
+        GhostRules d = GhostRules.DEFAULT;
+        int pinkyLead = d.pinkyLead, inkyLead = d.inkyLead, inkyScale = d.inkyScale, clydeRadius = d.clydeRadius;
+        double scatter = d.scatterTicks / (double) GameClock.TICKS_PER_SECOND;
+        double chase = d.chaseTicks / (double) GameClock.TICKS_PER_SECOND;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games" -> games = Integer.parseInt(value);
+                case "--level" -> levelArg = value;
+                case "--policy" -> policy = Policy.valueOf(value.toUpperCase(Locale.ROOT));
+                case "--max-seconds" -> maxSeconds = Double.parseDouble(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--ghosts" -> ghostCount = Integer.parseInt(value);
+                case "--pinky-lead" -> pinkyLead = Integer.parseInt(value);
+                case "--inky-lead" -> inkyLead = Integer.parseInt(value);
+                case "--inky-scale" -> inkyScale = Integer.parseInt(value);
+                case "--clyde-radius" -> clydeRadius = Integer.parseInt(value);
+                case "--scatter" -> scatter = Double.parseDouble(value);
+                case "--chase" -> chase = Double.parseDouble(value);
+                default -> {
+                    System.out.println("Unknown option " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        GhostRules rules = new GhostRules(pinkyLead, inkyLead, inkyScale, clydeRadius, scatter, chase);
+        List<Integer> levels = new ArrayList<>();
+        if (levelArg.equals("all")) {
+            for (int l = 0; l < Levels.count(); l++) levels.add(l);
+        } else {
+            int level = Integer.parseInt(levelArg) - 1;
+            if (level < 0 || level >= Levels.count()) {
+                System.out.println("Level must be 1-" + Levels.count() + " or all");
+                System.exit(2);
+            }
+            levels.add(level);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int level : levels) {
+                BatchRunner runner = new BatchRunner(level, games, policy, GameClock.secondsToTicks(maxSeconds), seed, rules, ghostCount);
+                long start = System.nanoTime();
+                Stats stats = runner.run(pool);
+                System.out.println(runner.report(stats, System.nanoTime() - start, threads));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
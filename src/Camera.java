@@ -0,0 +1,76 @@
+// Fixed-size window onto the maze that follows Pac-Man. The view is centered on
+// the target and clamped to the maze edges; a maze smaller than the view is
+// shown whole. The visible tile range, widened by a margin, is what the
+// renderer iterates, so drawing cost depends on the view size, not the maze size.
+public class Camera {
+
+    // Largest view in tiles; the built-in 19x21 levels fit without scrolling
+    public static final int MAX_VIEW_COLS = 25;
+    public static final int MAX_VIEW_ROWS = 21;
+    // Extra tiles drawn around the view so sprites and walls at the edge are not cut off
+    private static final int MARGIN_TILES = 1;
+
+    private final int tileSize;
+    private final int mazeCols, mazeRows;
+    private final int viewWidth, viewHeight;
+    private int x, y; // top-left of the view in maze pixels, whole pixels so tiles stay crisp
+
+    public Camera(int mazeCols, int mazeRows, int tileSize) {
+        this(mazeCols, mazeRows, tileSize, MAX_VIEW_COLS, MAX_VIEW_ROWS);
+    }
+
+    public Camera(int mazeCols, int mazeRows, int tileSize, int maxViewCols, int maxViewRows) {
+        this.tileSize = tileSize;
+        this.mazeCols = mazeCols;
+        this.mazeRows = mazeRows;
+        this.viewWidth = Math.min(mazeCols, maxViewCols) * tileSize;
+        this.viewHeight = Math.min(mazeRows, maxViewRows) * tileSize;
+    }
+
+    // Centers the view on a point in maze pixels; returns true if the view moved
+    public boolean follow(double targetX, double targetY) {
+        int nx = clamp((int) Math.round(targetX - viewWidth / 2.0), mazeCols * tileSize - viewWidth);
+        int ny = clamp((int) Math.round(targetY - viewHeight / 2.0), mazeRows * tileSize - viewHeight);
+        boolean moved = nx != x || ny != y;
+        x = nx;
+        y = ny;
+        return moved;
+    }
+
+    private static int clamp(int v, int max) {
+        return Math.max(0, Math.min(max, v));
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getViewWidth() {
+        return viewWidth;
+    }
+
+    public int getViewHeight() {
+        return viewHeight;
+    }
+
+    // Visible tile range, inclusive, with the margin
+    public int firstCol() {
+        return Math.max(0, x / tileSize - MARGIN_TILES);
+    }
+
+    public int lastCol() {
+        return Math.min(mazeCols - 1, (x + viewWidth - 1) / tileSize + MARGIN_TILES);
+    }
+
+    public int firstRow() {
+        return Math.max(0, y / tileSize - MARGIN_TILES);
+    }
+
+    public int lastRow() {
+        return Math.min(mazeRows - 1, (y + viewHeight - 1) / tileSize + MARGIN_TILES);
+    }
+}
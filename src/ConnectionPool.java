@@ -0,0 +1,183 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fixed-size JDBC connection pool. Connections handed out are proxies whose
+// close() returns the physical connection to the pool instead of closing it.
+public class ConnectionPool {
+
+    private final DatabaseConfig config;
+    private final BlockingQueue<PooledConnection> idle;
+    private final Semaphore permits;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private static class PooledConnection {
+        final Connection physical;
+        long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    public ConnectionPool(DatabaseConfig config) {
+        this.config = config;
+        this.idle = new ArrayBlockingQueue<>(config.getPoolSize());
+        this.permits = new Semaphore(config.getPoolSize(), true);
+        // Covers drivers that ignore the URL's connectTimeout
+        DriverManager.setLoginTimeout(Math.max(1, (config.getConnectTimeoutMs() + 999) / 1000));
+    }
+
+    // Borrows a connection, waiting at most pool.acquireTimeoutMs for one to free up
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + config.getAcquireTimeoutMs()
+                        + " ms waiting for a database connection (" + getMetrics() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword()));
+                created.incrementAndGet();
+            }
+            acquired.incrementAndGet();
+            return wrap(pooled);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            boolean stale = System.currentTimeMillis() - pooled.lastUsed > config.getValidateAfterIdleMs();
+            try {
+                if (!pooled.physical.isClosed() && (!stale || pooled.physical.isValid(1))) {
+                    return pooled;
+                }
+            } catch (SQLException ignored) {
+            }
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            if (!idle.offer(pooled)) discard(pooled);
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        discarded.incrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private Connection wrap(PooledConnection pooled) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean closed;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!closed) {
+                            closed = true;
+                            release(pooled);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return closed || pooled.physical.isClosed();
+                    }
+                    default -> {
+                        if (closed && method.getDeclaringClass() != Object.class) {
+                            throw new SQLException("Connection already returned to the pool");
+                        }
+                    }
+                }
+                try {
+                    return method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // Opens a connection ahead of the first caller and checks the server answers;
+    // it is left idle in the pool
+    public void warmUp() throws SQLException {
+        try (Connection conn = getConnection()) {
+            if (!conn.isValid(Math.max(1, config.getConnectTimeoutMs() / 1000))) {
+                throw new SQLException("Database did not answer a validation check");
+            }
+        }
+    }
+
+    // Runs a statement on a fresh pooled connection; used to warm the pool and bootstrap schemas
+    public void execute(String sql) throws SQLException {
+        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    public int getActive() {
+        return config.getPoolSize() - permits.availablePermits();
+    }
+
+    public int getIdle() {
+        return idle.size();
+    }
+
+    public String getMetrics() {
+        long count = acquired.get();
+        return String.format("active=%d idle=%d max=%d created=%d acquired=%d timeouts=%d discarded=%d avgWaitMs=%.2f maxWaitMs=%.2f",
+                getActive(), getIdle(), config.getPoolSize(), created.get(), count, timeouts.get(), discarded.get(),
+                count == 0 ? 0.0 : totalWaitNanos.get() / 1e6 / count, maxWaitNanos.get() / 1e6);
+    }
+}
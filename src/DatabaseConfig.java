@@ -0,0 +1,107 @@
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+// Database and pool settings, read from db.properties: first the file named by
+// -Dpacman.db.config, then ./db.properties, then the copy bundled on the classpath
+public class DatabaseConfig {
+
+    private final Properties props;
+
+    private DatabaseConfig(Properties props) {
+        this.props = props;
+    }
+
+    public static DatabaseConfig load() {
+        Properties props = new Properties();
+        try {
+            String configured = System.getProperty("pacman.db.config");
+            Path external = configured != null ? Paths.get(configured) : Paths.get("db.properties");
+            if (Files.exists(external)) {
+                try (InputStream in = Files.newInputStream(external)) {
+                    props.load(in);
+                }
+            } else {
+                try (InputStream in = DatabaseConfig.class.getResourceAsStream("/db.properties")) {
+                    if (in != null) props.load(in);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        // System properties win, so a single run can switch profile with -Ddb.profile=h2
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("db.") || key.startsWith("pool.") || key.startsWith("statementCache.")) {
+                props.setProperty(key, System.getProperty(key));
+            }
+        }
+        return new DatabaseConfig(props);
+    }
+
+    public boolean isEmbedded() {
+        return "h2".equalsIgnoreCase(props.getProperty("db.profile", "mysql"));
+    }
+
+    // JDBC URL for the active profile, with the driver's prepared statement cache switched on
+    public String getUrl() {
+        int cacheSize = getStatementCacheSize();
+        if (isEmbedded()) {
+            String url = props.getProperty("db.h2.url", "jdbc:h2:mem:pacman;MODE=MySQL;DB_CLOSE_DELAY=-1");
+            return cacheSize <= 0 ? url : url + ";QUERY_CACHE_SIZE=" + cacheSize;
+        }
+        String url = props.getProperty("db.url", "jdbc:mysql://localhost:3306/pacman_app");
+        // Without these a dead server hangs the caller in connect() or read() indefinitely
+        url += (url.contains("?") ? "&" : "?")
+                + "connectTimeout=" + getConnectTimeoutMs() + "&socketTimeout=" + getSocketTimeoutMs();
+        if (cacheSize <= 0) return url;
+        return url + "&cachePrepStmts=true&useServerPrepStmts=true&prepStmtCacheSize=" + cacheSize
+                + "&prepStmtCacheSqlLimit=2048";
+    }
+
+    public String getUser() {
+        return isEmbedded() ? props.getProperty("db.h2.user", "sa") : props.getProperty("db.user", "");
+    }
+
+    public String getPassword() {
+        return isEmbedded() ? props.getProperty("db.h2.password", "") : props.getProperty("db.password", "");
+    }
+
+    public int getPoolSize() {
+        return getInt("pool.size", 4);
+    }
+
+    public long getAcquireTimeoutMs() {
+        return getInt("pool.acquireTimeoutMs", 3000);
+    }
+
+    public long getValidateAfterIdleMs() {
+        return getInt("pool.validateAfterIdleMs", 30000);
+    }
+
+    public int getConnectTimeoutMs() {
+        return getInt("pool.connectTimeoutMs", 5000);
+    }
+
+    // Longest a single statement may wait on the server; migrations run under it too
+    public int getSocketTimeoutMs() {
+        return getInt("pool.socketTimeoutMs", 60000);
+    }
+
+    public int getStatementCacheSize() {
+        return getInt("statementCache.size", 64);
+    }
+
+    public String get(String key, String defaultValue) {
+        return props.getProperty(key, defaultValue);
+    }
+
+    private int getInt(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(props.getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
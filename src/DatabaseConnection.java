@@ -1,13 +1,49 @@
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/pacman_app";
-    private static final String USER = "root";
-    private static final String PASSWORD = "anjan@123";
+    private static volatile ConnectionPool pool;
+    private static FutureTask<ConnectionPool> starting;
 
+    // Lazily creates the pool from db.properties and brings the schema up to date (see Migrations).
+    // The first caller connects and migrates outside the class lock; concurrent callers wait on
+    // its result, and a failed start is retried by the next call
+    public static ConnectionPool getPool() throws Exception {
+        ConnectionPool ready = pool;
+        if (ready != null) return ready;
+
+        FutureTask<ConnectionPool> task;
+        boolean owner = false;
+        synchronized (DatabaseConnection.class) {
+            if (pool != null) return pool;
+            if (starting == null) {
+                starting = new FutureTask<>(DatabaseConnection::createPool);
+                owner = true;
+            }
+            task = starting;
+        }
+        if (owner) task.run();
+
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            synchronized (DatabaseConnection.class) {
+                if (starting == task) starting = null;
+            }
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private static ConnectionPool createPool() throws Exception {
+        ConnectionPool created = new ConnectionPool(DatabaseConfig.load());
+        Migrations.migrate(created);
+        pool = created;
+        return created;
+    }
+
+    // Borrows a pooled connection; closing it returns it to the pool
     public static Connection getConnection() throws Exception {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getPool().getConnection();
     }
 }
-
@@ -0,0 +1,32 @@
+// Movement directions; ordinal() matches the 0 up, 1 down, 2 left, 3 right
+// indices ghosts and RoutingTable use for their int directions
+public enum Direction {
+    UP(-1, 0),
+    DOWN(1, 0),
+    LEFT(0, -1),
+    RIGHT(0, 1);
+
+    private static final Direction[] VALUES = values();
+
+    public final int dr;
+    public final int dc;
+
+    Direction(int dr, int dc) {
+        this.dr = dr;
+        this.dc = dc;
+    }
+
+    public Direction opposite() {
+        return switch (this) {
+            case UP -> DOWN;
+            case DOWN -> UP;
+            case LEFT -> RIGHT;
+            case RIGHT -> LEFT;
+        };
+    }
+
+    // Direction for an index 0-3, without the array copy values() makes
+    public static Direction of(int index) {
+        return VALUES[index];
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+// Shared chase routing: one reverse BFS distance map per target tile, which
+// any number of ghosts read their next step from. Maps for the most recently
+// used targets are kept (the maze never changes, so a map stays valid), and a
+// new one is computed only for a target not in the cache. AI cost per tick is
+// then bounded by the number of distinct targets, not the number of ghosts.
+//
+// firstMove() picks the lowest-numbered direction (0 up, 1 down, 2 left,
+// 3 right) that starts a shortest path, the same answer RoutingTable gives.
+public class FlowFields {
+
+    private static final int CAPACITY = 16;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int[] DR = {-1, 1, 0, 0};
+    private static final int[] DC = {0, 0, -1, 1};
+
+    private final int[][] map;
+    private final int rows;
+    private final int cols;
+    private final int[] targets = new int[CAPACITY];     // target tile per slot, -1 if free
+    private final int[][] distances = new int[CAPACITY][];
+    private final long[] lastUsed = new long[CAPACITY];
+    private final int[] queue;
+    private int lastSlot;    // consecutive lookups usually share a target
+    private long useClock;
+    private long computed;
+
+    public FlowFields(int[][] map) {
+        this.map = map;
+        this.rows = map.length;
+        this.cols = map[0].length;
+        this.queue = new int[rows * cols];
+        Arrays.fill(targets, -1);
+    }
+
+    public int firstMove(int fromRow, int fromCol, int toRow, int toCol) {
+        if (fromRow < 0 || fromRow >= rows || fromCol < 0 || fromCol >= cols) return -1;
+        if (toRow < 0 || toRow >= rows || toCol < 0 || toCol >= cols) return -1;
+        if (fromRow == toRow && fromCol == toCol) return -1;
+        int[] dist = field(toRow * cols + toCol);
+
+        // Step to the open neighbour closest to the target, lowest direction first
+        int best = UNREACHABLE, move = -1;
+        for (int d = 0; d < 4; d++) {
+            int nr = fromRow + DR[d], nc = fromCol + DC[d];
+            if (nr < 0 || nr >= rows || nc < 0 || nc >= cols) continue;
+            int nd = dist[nr * cols + nc];
+            if (nd < best) {
+                best = nd;
+                move = d;
+            }
+        }
+        return move;
+    }
+
+    // Distance map for a target tile, from the cache or computed into the least recently used slot
+    private int[] field(int target) {
+        if (targets[lastSlot] == target) {
+            lastUsed[lastSlot] = ++useClock;
+            return distances[lastSlot];
+        }
+        int slot = -1;
+        for (int i = 0; i < CAPACITY; i++) {
+            if (targets[i] == target) {
+                lastUsed[i] = ++useClock;
+                lastSlot = i;
+                return distances[i];
+            }
+            if (slot == -1 || lastUsed[i] < lastUsed[slot]) slot = i;
+        }
+        if (distances[slot] == null) distances[slot] = new int[rows * cols];
+        solve(target, distances[slot]);
+        targets[slot] = target;
+        lastUsed[slot] = ++useClock;
+        lastSlot = slot;
+        computed++;
+        return distances[slot];
+    }
+
+    // Reverse BFS over open tiles from the target; walls and closed-off tiles stay UNREACHABLE
+    private void solve(int target, int[] dist) {
+        Arrays.fill(dist, UNREACHABLE);
+        if (map[target / cols][target % cols] != 0) return;
+        int head = 0, tail = 0;
+        dist[target] = 0;
+        queue[tail++] = target;
+        while (head < tail) {
+            int current = queue[head++];
+            int r = current / cols, c = current % cols;
+            for (int d = 0; d < 4; d++) {
+                int nr = r + DR[d], nc = c + DC[d];
+                if (nr < 0 || nr >= rows || nc < 0 || nc >= cols || map[nr][nc] != 0) continue;
+                int next = nr * cols + nc;
+                if (dist[next] != UNREACHABLE) continue;
+                dist[next] = dist[current] + 1;
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    // Distance maps computed so far; cache hits do not count
+    public long getComputedCount() {
+        return computed;
+    }
+}
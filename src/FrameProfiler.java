@@ -0,0 +1,127 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Per-frame timings split by section, kept in fixed-size histograms, plus FPS and
+// the allocation rate of the game thread sampled once a second.
+public class FrameProfiler {
+
+    public enum Section { FRAME, SIMULATION, GHOST_AI, PELLETS, RENDER }
+
+    private static final Section[] SECTIONS = Section.values();
+
+    private final Map<Section, LatencyHistogram> histograms = new EnumMap<>(Section.class);
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean allocationSupported;
+    // Time spent in each section during the current frame, across all its ticks
+    private final long[] frameTotals = new long[SECTIONS.length];
+
+    private long frameStart;
+    private long firstFrameStart;
+    private long lastFrameEnd;
+    private long frames;
+    private long windowStart;
+    private long windowFrames;
+    private long windowAllocatedStart;
+    private double fps;
+    private double allocationMbPerSecond;
+    private double allocationMbPerSecondSum;
+    private long allocationSamples;
+
+    public FrameProfiler() {
+        for (Section s : SECTIONS) histograms.put(s, new LatencyHistogram());
+        allocationSupported = threads instanceof com.sun.management.ThreadMXBean;
+    }
+
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        if (windowStart == 0) {
+            firstFrameStart = frameStart;
+            windowStart = frameStart;
+            windowAllocatedStart = allocatedBytes();
+        }
+    }
+
+    public void endFrame() {
+        long now = System.nanoTime();
+        lastFrameEnd = now;
+        frameTotals[Section.FRAME.ordinal()] = now - frameStart;
+        for (Section s : SECTIONS) {
+            histograms.get(s).record(frameTotals[s.ordinal()]);
+            frameTotals[s.ordinal()] = 0;
+        }
+        frames++;
+        windowFrames++;
+
+        long window = now - windowStart;
+        if (window >= 1_000_000_000L) {
+            double seconds = window / 1e9;
+            fps = windowFrames / seconds;
+            long allocated = allocatedBytes();
+            if (allocationSupported) {
+                allocationMbPerSecond = (allocated - windowAllocatedStart) / seconds / (1024.0 * 1024.0);
+                allocationMbPerSecondSum += allocationMbPerSecond;
+                allocationSamples++;
+            }
+            windowStart = now;
+            windowFrames = 0;
+            windowAllocatedStart = allocated;
+        }
+    }
+
+    // Adds time to a section of the current frame
+    public void add(Section section, long nanos) {
+        frameTotals[section.ordinal()] += nanos;
+    }
+
+    private long allocatedBytes() {
+        if (!allocationSupported) return 0;
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public LatencyHistogram get(Section section) {
+        return histograms.get(section);
+    }
+
+    public double getFps() {
+        return fps;
+    }
+
+    public double getAllocationMbPerSecond() {
+        return allocationMbPerSecond;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    // Lines for the in-game overlay
+    public String overlayText() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(String.format(Locale.ROOT, "FPS %.0f   alloc %.2f MB/s%n", fps, allocationMbPerSecond));
+        sb.append("section      p50     p99     max (ms)\n");
+        for (Section s : Section.values()) {
+            LatencyHistogram h = histograms.get(s);
+            sb.append(String.format(Locale.ROOT, "%-10s %6.2f  %6.2f  %6.2f%n", s.name().toLowerCase(Locale.ROOT),
+                    h.percentile(50) / 1e6, h.percentile(99) / 1e6, h.getMax() / 1e6));
+        }
+        return sb.toString();
+    }
+
+    // One-line session summary: frames, average FPS and allocation, then p50/p99/max per section in ms
+    public String summary() {
+        double seconds = (lastFrameEnd - firstFrameStart) / 1e9;
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(String.format(Locale.ROOT, "frames=%d avgFps=%.1f avgAllocMBps=%.2f",
+                frames, seconds > 0 ? frames / seconds : 0,
+                allocationSamples == 0 ? 0 : allocationMbPerSecondSum / allocationSamples));
+        for (Section s : Section.values()) {
+            LatencyHistogram h = histograms.get(s);
+            sb.append(String.format(Locale.ROOT, " %s=%.2f/%.2f/%.2f", s.name().toLowerCase(Locale.ROOT),
+                    h.percentile(50) / 1e6, h.percentile(99) / 1e6, h.getMax() / 1e6));
+        }
+        return sb.toString();
+    }
+}
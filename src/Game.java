@@ -2,8 +2,6 @@ import javafx.animation.AnimationTimer;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
@@ -14,18 +12,25 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.*;
 
 public class Game {
 
     private int selectedLevel = 0;
+    private final int ghostCount; // 0 = the level's own ghosts
 
     public Game(int selectedLevel) {
+        this(selectedLevel, 0);
+    }
+
+    public Game(int selectedLevel, int ghostCount) {
+        this(selectedLevel, ghostCount, new GameClock());
+    }
+
+    public Game(int selectedLevel, int ghostCount, GameClock clock) {
         this.selectedLevel = selectedLevel;
+        this.ghostCount = ghostCount;
+        this.clock = clock;
     }
 
     public enum GameState {
@@ -33,53 +38,32 @@ public class Game {
         PAUSED
     }
 
-    public final int TILE_SIZE = 32;
-    public int ROWS = 21;
-    public int COLS = 19;
-
-    private long startTime;
-    private long pauseStartTime = 0;
-    private long totalPausedDuration = 0;
+    private final GameClock clock;
     private int elapsedSeconds;
     private LocalDateTime played_at;
     private int score = 0;
 
+    private GameEngine engine;
+    private GameRenderer renderer;
+    private Direction pendingInput;
+    private ReplayRecorder recorder;
+    private Replay replay;
+    private final FrameProfiler profiler = new FrameProfiler();
+    private boolean profilerVisible = false;
+
     private GameState gameState = GameState.RUNNING;
     private Label pauseLabel;
     private Rectangle pauseOverlay;
     private Button pauseResumeButton;
 
-    public int[][] map;
-    private final List<int[][]> levels = new ArrayList<>();
-    private final Set<String> pellets = new HashSet<>();
-    private PacMan pacman;
-    private List<Ghost> ghosts = new ArrayList<>();
-
     public void show(Stage stage) {
-        initLevels();
-
-        if (selectedLevel < 0 || selectedLevel >= levels.size()) {
-            selectedLevel = 0;
-        }
-        map = levels.get(selectedLevel);
-
-        Canvas canvas = new Canvas(COLS * TILE_SIZE, ROWS * TILE_SIZE);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-
-        pacman = new PacMan(TILE_SIZE * 1.5 - 11, TILE_SIZE * 1.5 - 11);
-
-        // Initialize ghosts with their scatter targets
-        ghosts.clear();
-        ghosts.add(new Ghost(TILE_SIZE*9, TILE_SIZE*9, Color.RED, 0, COLS-1, this, "src/icons/red_ghost.png", Ghost.GhostType.BLINKY));
-        ghosts.add(new Ghost(TILE_SIZE*9, TILE_SIZE*9, Color.PINK, 0, 0, this, "src/icons/pink_ghost.png", Ghost.GhostType.PINKY));
-        ghosts.add(new Ghost(TILE_SIZE*9, TILE_SIZE*11, Color.CYAN, ROWS-1, COLS-1, this, "src/icons/blue_ghost.png", Ghost.GhostType.INKY));
-        ghosts.add(new Ghost(TILE_SIZE*9, TILE_SIZE*13, Color.ORANGE, ROWS-1, 0, this, "src/icons/orange_ghost.png", Ghost.GhostType.CLYDE));
-
-        pellets.clear();
-        for (int r = 0; r < ROWS; r++)
-            for (int c = 0; c < COLS; c++)
-                if (map[r][c] == 0)
-                    pellets.add(r + "," + c);
+        long startedNanos = System.nanoTime();
+        // A fresh seed per game; the replay stores it with the inputs
+        engine = new GameEngine(selectedLevel, GameEngine.newSeed(), GhostRules.DEFAULT, ghostCount);
+        selectedLevel = engine.level;
+        recorder = new ReplayRecorder(engine.level, ghostCount, engine.seed);
+        renderer = new GameRenderer(engine);
+        engine.setProfiler(profiler);
 
         Button exitButton = new Button("Exit");
         exitButton.setStyle(
@@ -113,7 +97,7 @@ public class Game {
         topBar.setAlignment(Pos.TOP_RIGHT);
         topBar.setPadding(new Insets(6));
 
-        pauseOverlay = new Rectangle(canvas.getWidth(), canvas.getHeight());
+        pauseOverlay = new Rectangle(renderer.getWidth(), renderer.getHeight());
         pauseOverlay.setFill(Color.rgb(0, 0, 0, 0.5));
         pauseOverlay.setVisible(false);
 
@@ -124,7 +108,7 @@ public class Game {
         StackPane overlay = new StackPane(pauseOverlay, pauseLabel);
         overlay.setPickOnBounds(false);
 
-        StackPane root = new StackPane(canvas, overlay, topBar);
+        StackPane root = new StackPane(renderer.getView(), overlay, topBar);
         StackPane.setAlignment(topBar, Pos.TOP_RIGHT);
 
         Scene scene = new Scene(root);
@@ -134,17 +118,20 @@ public class Game {
 
         root.requestFocus();
 
-        startTime = System.currentTimeMillis();
+        clock.start();
         played_at = LocalDateTime.now(); // ✅ Set played_at
 
         scene.setOnKeyPressed(e -> {
             if (gameState == GameState.RUNNING) {
-                if (e.getCode() == KeyCode.UP) pacman.setDirection("UP");
-                else if (e.getCode() == KeyCode.DOWN) pacman.setDirection("DOWN");
-                else if (e.getCode() == KeyCode.LEFT) pacman.setDirection("LEFT");
-                else if (e.getCode() == KeyCode.RIGHT) pacman.setDirection("RIGHT");
+                if (e.getCode() == KeyCode.UP) pendingInput = Direction.UP;
+                else if (e.getCode() == KeyCode.DOWN) pendingInput = Direction.DOWN;
+                else if (e.getCode() == KeyCode.LEFT) pendingInput = Direction.LEFT;
+                else if (e.getCode() == KeyCode.RIGHT) pendingInput = Direction.RIGHT;
             }
-            if (e.getCode() == KeyCode.P) {
+            if (e.getCode() == KeyCode.F3) {
+                profilerVisible = !profilerVisible;
+                if (!profilerVisible) renderer.setOverlayText(null);
+            } else if (e.getCode() == KeyCode.P) {
                 pauseGame();
             } else if (e.getCode() == KeyCode.R) {
                 resumeGame();
@@ -154,57 +141,17 @@ public class Game {
         scene.setOnMouseClicked(e -> root.requestFocus());
 
         new AnimationTimer() {
+            private boolean firstFrameDrawn;
+
             @Override
             public void handle(long now) {
+                // Paused frames neither step nor draw, so they are not profiled
                 if (gameState == GameState.PAUSED) return;
-
-                pacman.update(Game.this);
-
-                gc.setFill(Color.BLACK);
-                gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
-
-                for (int r = 0; r < ROWS; r++) {
-                    for (int c = 0; c < COLS; c++) {
-                        if (map[r][c] == 1) {
-                            double x = c * TILE_SIZE;
-                            double y = r * TILE_SIZE;
-                            gc.setStroke(Color.BLUE);
-                            gc.setLineWidth(3);
-                            gc.strokeRect(x, y, TILE_SIZE, TILE_SIZE);
-                        }
-                    }
-                }
-
-                gc.setFill(Color.WHITE);
-                Set<String> eaten = new HashSet<>();
-                for (String p : pellets) {
-                    String[] parts = p.split(",");
-                    int pr = Integer.parseInt(parts[0]);
-                    int pc = Integer.parseInt(parts[1]);
-                    double px = pc * TILE_SIZE + TILE_SIZE / 2.0;
-                    double py = pr * TILE_SIZE + TILE_SIZE / 2.0;
-
-                    if (pacman.checkPelletCollision(px, py)) {
-                        eaten.add(p);
-                        score += 10;
-                    } else {
-                        gc.fillOval(px - 2, py - 2, 4, 4);
-                    }
-                }
-                pellets.removeAll(eaten);
-
-                elapsedSeconds = (int) ((System.currentTimeMillis() - startTime - totalPausedDuration) / 1000);
-
-                gc.setFont(javafx.scene.text.Font.font(20));
-                gc.fillText("Score: " + score, 10, 25);
-                gc.fillText("Time: " + elapsedSeconds + "s", 120, 25);
-
-                // ✅ Update and draw ghosts
-                for (Ghost g : ghosts) {
-                    g.update(pacman.getX(), pacman.getY(), pacman.getDirection(), ghosts.get(0).getX(), ghosts.get(0).getY());
-                    g.draw(gc);
-
-                    if (g.checkPacmanCollision(pacman.getX(), pacman.getY())) {
+                profiler.beginFrame();
+                int steps = clock.advance();
+                for (int i = 0; i < steps; i++) {
+                    if (tick()) {
+                        profiler.endFrame();
                         saveScore();
                         stop();
                         showGameOver(stage);
@@ -212,17 +159,33 @@ public class Game {
                     }
                 }
 
-                if (pellets.isEmpty()) {
-                    saveScore();
-                    stop();
-                    showGameOver(stage);
+                // Overlay text is rebuilt a few times a second, not every frame
+                if (profilerVisible && profiler.getFrames() % 15 == 0) {
+                    renderer.setOverlayText(profiler.overlayText());
+                }
+                long renderStart = System.nanoTime();
+                renderer.render(clock.alpha());
+                profiler.add(FrameProfiler.Section.RENDER, System.nanoTime() - renderStart);
+                profiler.endFrame();
+                if (!firstFrameDrawn) {
+                    firstFrameDrawn = true;
+                    Startup.gameFrameShown(selectedLevel, startedNanos);
                 }
-
-                pacman.draw(gc);
             }
         }.start();
     }
 
+    // Feeds the latest key press to the engine for one tick; returns true once the game is over
+    private boolean tick() {
+        Direction input = pendingInput;
+        pendingInput = null;
+        if (input != null) recorder.record(engine.getTicks(), input);
+        engine.step(input);
+        score = engine.getScore();
+        elapsedSeconds = engine.getElapsedSeconds();
+        return engine.isOver();
+    }
+
     private void togglePause() {
         if (gameState == GameState.RUNNING) {
             pauseGame();
@@ -234,7 +197,7 @@ public class Game {
     private void pauseGame() {
         if (gameState != GameState.RUNNING) return;
         gameState = GameState.PAUSED;
-        pauseStartTime = System.currentTimeMillis();
+        clock.pause();
         pauseOverlay.setVisible(true);
         pauseLabel.setVisible(true);
         pauseResumeButton.setText("Resume");
@@ -242,27 +205,22 @@ public class Game {
 
     private void resumeGame() {
         if (gameState != GameState.PAUSED) return;
-        totalPausedDuration += System.currentTimeMillis() - pauseStartTime;
+        clock.resume();
         gameState = GameState.RUNNING;
         pauseOverlay.setVisible(false);
         pauseLabel.setVisible(false);
         pauseResumeButton.setText("Pause");
     }
 
+    // Hands the result to the background writer; never touches the database itself
     public void saveScore() {
+        replay = recorder.finish(engine.getTicks(), score);
         if (Session.currentUser == null) return;
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement(
-                    "INSERT INTO game_results (username,score,time_taken,played_at) VALUES (?,?,?,?)"
-            );
-            stmt.setString(1, Session.currentUser);
-            stmt.setInt(2, score);
-            stmt.setInt(3, elapsedSeconds);
-            stmt.setTimestamp(4, Timestamp.valueOf(played_at));
-            stmt.executeUpdate();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        boolean cleared = engine.getStatus() == GameEngine.Status.WON;
+        ScoreWriter.submit(new ScoreWriter.PendingScore(Session.currentUser, score, elapsedSeconds, selectedLevel, cleared, played_at,
+                replay.toBytes()));
+        PerformanceLog.append(Session.currentUser, selectedLevel, score, elapsedSeconds, cleared, played_at, profiler);
+        Leaderboard.record(new Leaderboard.Entry(Session.currentUser, score, elapsedSeconds, selectedLevel, cleared, played_at));
     }
 
     private void showGameOver(Stage stage) {
@@ -271,13 +229,15 @@ public class Game {
 
         Button backBtn = new Button("Back to Menu");
         Button playAgainBtn = new Button("Play Again");
+        Button replayBtn = new Button("Watch Replay");
         Button exitBtn = new Button("Exit");
 
         backBtn.setOnAction(e -> MenuScreen.show(stage));
-        playAgainBtn.setOnAction(e -> new Game(selectedLevel).show(stage));
+        playAgainBtn.setOnAction(e -> new Game(selectedLevel, ghostCount).show(stage));
+        replayBtn.setOnAction(e -> ReplayScreen.show(stage, replay));
         exitBtn.setOnAction(e -> stage.close());
 
-        HBox buttons = new HBox(15, backBtn, playAgainBtn, exitBtn);
+        HBox buttons = new HBox(15, backBtn, playAgainBtn, replayBtn, exitBtn);
         buttons.setAlignment(Pos.CENTER);
 
         VBox root = new VBox(20, msg, buttons);
@@ -285,89 +245,6 @@ public class Game {
         root.setPadding(new Insets(20));
         root.setStyle("-fx-background-color:rgb(56,64,152);");
 
-        stage.setScene(new Scene(root, 400, 220));
-    }
-
-    private void initLevels() {
-        // Level 1 - your current map
-        int[][] level1 = {
-                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
-                {1,0,0,0,1,0,0,0,1,0,1,0,0,0,1,0,0,0,1},
-                {1,0,1,0,1,0,1,0,1,0,1,0,1,0,1,0,1,0,1},
-                {1,0,1,0,0,0,1,0,0,0,0,0,1,0,0,0,1,0,1},
-                {1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1},
-                {1,0,0,0,1,0,0,0,0,0,0,0,0,0,1,0,0,0,1},
-                {1,1,1,0,1,0,1,1,2,2,2,2,1,1,1,0,1,1,1},
-                {1,1,0,0,0,0,1,2,2,2,2,2,2,1,0,0,0,1,1},
-                {1,1,1,0,1,0,1,2,2,2,2,2,2,1,0,1,1,1,1},
-                {1,0,0,0,1,0,0,0,0,2,2,0,0,0,0,0,0,0,1},
-                {1,0,1,1,1,1,1,1,0,0,0,0,1,1,1,1,1,0,1},
-                {1,0,0,0,1,0,0,0,1,1,1,0,0,0,1,0,0,0,1},
-                {1,1,1,0,1,0,1,0,1,0,1,0,1,0,1,0,1,1,1},
-                {1,0,0,0,0,0,1,0,0,0,0,0,1,0,0,0,0,0,1},
-                {1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1},
-                {1,0,0,0,1,0,0,0,0,0,0,0,0,0,1,0,0,0,1},
-                {1,1,1,0,1,0,1,1,1,1,1,1,1,0,1,0,1,1,1},
-                {1,0,0,0,0,0,1,0,0,0,0,0,1,0,0,0,0,0,1},
-                {1,0,1,1,1,1,1,0,1,1,1,0,1,1,1,1,1,0,1},
-                {1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
-                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
-        };
-
-        // Level 2 - slightly different maze
-        int[][] level2 = {
-                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
-                {1,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,0,1},
-                {1,0,1,1,1,1,0,1,0,1,0,1,0,1,1,1,1,0,1},
-                {1,0,0,0,1,0,0,0,0,1,0,0,0,0,1,0,0,0,1},
-                {1,1,1,0,1,0,1,1,1,0,1,1,1,0,1,0,1,1,1},
-                {1,0,0,0,1,0,0,0,0,0,0,0,0,0,1,0,0,0,1},
-                {1,0,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,0,1},
-                {1,0,1,0,0,0,1,0,0,0,0,0,1,0,0,0,1,0,1},
-                {1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1},
-                {1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
-                {1,0,1,1,1,1,1,0,1,0,0,0,1,0,1,1,1,1,1},
-                {1,0,0,0,0,0,1,0,1,1,1,1,1,0,0,0,0,0,1},
-                {1,1,1,0,1,0,1,0,0,0,0,0,1,0,1,0,1,1,1},
-                {1,0,0,0,1,0,0,0,1,1,1,0,0,0,1,0,0,0,1},
-                {1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1},
-                {1,0,0,0,1,0,0,0,0,0,0,0,0,0,1,0,0,0,1},
-                {1,1,1,0,1,1,1,0,1,1,1,1,1,0,1,1,1,0,1},
-                {1,0,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,1},
-                {1,0,1,1,1,1,1,0,1,0,0,0,1,0,1,1,1,1,1},
-                {1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
-                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
-        };
-
-        // Level 3 - more open style maze
-        int[][] level3 = {
-                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
-                {1,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,0,1},
-                {1,0,1,1,1,1,0,1,0,1,0,1,0,1,1,1,1,0,1},
-                {1,0,0,0,0,1,0,0,0,1,0,0,0,1,0,0,0,0,1},
-                {1,1,1,1,0,1,1,1,0,1,0,1,1,1,0,1,1,1,1},
-                {1,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,0,1},
-                {1,0,1,1,1,1,0,1,1,1,1,1,0,1,1,1,1,0,1},
-                {1,0,1,0,0,0,0,0,0,0,0,0,0,0,0,0,1,0,1},
-                {1,0,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,0,1},
-                {1,0,0,0,0,0,1,0,0,0,0,0,1,0,0,0,0,0,1},
-                {1,1,1,0,1,0,1,1,1,0,1,1,1,0,1,0,1,1,1},
-                {1,0,0,0,1,0,0,0,1,0,0,0,1,0,0,0,0,0,1},
-                {1,0,1,1,1,1,1,0,1,0,1,0,1,0,1,1,1,0,1},
-                {1,0,0,0,0,0,0,0,1,0,1,0,0,0,0,0,0,0,1},
-                {1,1,1,1,1,1,0,1,1,0,1,1,0,1,1,1,1,1,1},
-                {1,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,0,1},
-                {1,0,1,1,1,1,0,1,0,1,0,1,0,1,1,1,1,0,1},
-                {1,0,1,0,0,0,0,0,0,1,0,0,0,0,0,0,1,0,1},
-                {1,0,0,0,1,1,1,1,1,0,1,1,1,1,1,0,0,0,1},
-                {1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
-                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
-        };
-
-
-        levels.clear();
-        levels.add(level1);
-        levels.add(level2);
-        levels.add(level3);
+        stage.setScene(new Scene(root, 520, 220));
     }
 }
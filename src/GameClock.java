@@ -0,0 +1,87 @@
+// Fixed-timestep clock: real time is accumulated and handed out as whole
+// simulation ticks, so game speed no longer depends on the display refresh rate.
+public class GameClock {
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+
+    // Longest stretch of ticks simulated in one frame before the clock drops time
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final TimeSource timeSource;
+    private double timeScale = 1.0;
+    private long lastTime;
+    private long accumulator;
+    private long ticks;
+    private boolean paused;
+
+    public GameClock() {
+        this(TimeSource.SYSTEM);
+    }
+
+    public GameClock(TimeSource timeSource) {
+        this.timeSource = timeSource;
+        this.lastTime = timeSource.nanoTime();
+    }
+
+    // Starts counting from now, discarding any time that passed before the game was shown
+    public void start() {
+        paused = false;
+        accumulator = 0;
+        lastTime = timeSource.nanoTime();
+    }
+
+    // Returns how many ticks to simulate for this frame
+    public int advance() {
+        long now = timeSource.nanoTime();
+        if (paused) {
+            lastTime = now;
+            return 0;
+        }
+        accumulator += (long) ((now - lastTime) * timeScale);
+        lastTime = now;
+
+        int due = (int) Math.min(accumulator / TICK_NANOS, MAX_CATCH_UP_TICKS);
+        accumulator -= due * TICK_NANOS;
+        if (accumulator >= TICK_NANOS) {
+            // Too far behind (debugger, window drag): drop the backlog instead of spiralling
+            accumulator %= TICK_NANOS;
+        }
+        ticks += due;
+        return due;
+    }
+
+    // Fraction of a tick between the last simulated state and now, for interpolated drawing
+    public double alpha() {
+        return (double) accumulator / TICK_NANOS;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        if (!paused) return;
+        paused = false;
+        lastTime = timeSource.nanoTime();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void setTimeScale(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getElapsedSeconds() {
+        return (int) (ticks / TICKS_PER_SECOND);
+    }
+
+    public static int secondsToTicks(double seconds) {
+        return (int) Math.round(seconds * TICKS_PER_SECOND);
+    }
+}
@@ -0,0 +1,282 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Game rules without any JavaFX dependency: maze, Pac-Man, ghosts, pellets,
+// scoring and win/loss. Each step() advances the simulation by one fixed tick.
+public class GameEngine {
+
+    public enum Status {
+        RUNNING,
+        WON,
+        LOST
+    }
+
+    public final int TILE_SIZE = 32;
+    public final int ROWS;
+    public final int COLS;
+    public final int level;
+    public final int[][] map;
+    public final RoutingTable routes; // null on mazes too large to precompute; see firstMove
+    public final long seed;
+    public final GhostRules rules;
+
+    // All game randomness comes from here, so a seed and the inputs reproduce a game
+    private final Random random;
+    private final PelletGrid pellets;
+    private final PacMan pacman;
+    private final List<Ghost> ghosts = new ArrayList<>();
+    private final List<Ghost> ghostsView = Collections.unmodifiableList(ghosts);
+    private final Ghost blinky; // Inky aims relative to Blinky
+    // Ghosts bucketed by tile, so collision checks only look at nearby ghosts
+    private final SpatialGrid grid;
+    // With more ghosts than the level places, ghosts queue instead of stacking up
+    private final boolean separateGhosts;
+    private final Level layout;
+    // Ghost routing on mazes too large to precompute: one distance map per
+    // target tile, read by every ghost
+    private FlowFields flowFields;
+
+    private int score = 0;
+    private long ticks = 0;
+    private Status status = Status.RUNNING;
+    private Ghost caughtBy;
+    private FrameProfiler profiler;
+
+    public GameEngine(int level) {
+        this(level, newSeed());
+    }
+
+    public GameEngine(int level, long seed) {
+        this(level, seed, GhostRules.DEFAULT);
+    }
+
+    public GameEngine(int level, long seed, GhostRules rules) {
+        this(level, seed, rules, 0);
+    }
+
+    // ghostCount 0 plays with the level's own ghosts; more adds copies of them
+    public GameEngine(int level, long seed, GhostRules rules, int ghostCount) {
+        this(validLevel(level), Levels.get(validLevel(level)), seed, rules, ghostCount);
+    }
+
+    // A game on an arbitrary maze (generated or loaded), not tied to a level in the pack
+    public GameEngine(int[][] map) {
+        this(-1, Level.withDefaultSpawns("Custom", map), newSeed(), GhostRules.DEFAULT, 0);
+    }
+
+    public GameEngine(int level, Level layout, long seed, GhostRules rules, int ghostCount) {
+        this.level = level;
+        this.map = layout.getMap();
+        this.ROWS = map.length;
+        this.COLS = map[0].length;
+        this.routes = layout.getRoutes();
+        this.layout = layout;
+        if (routes == null) this.flowFields = layout.getFlowFields();
+        this.seed = seed;
+        this.rules = rules;
+        this.random = new Random(seed);
+        this.pellets = new PelletGrid(map);
+
+        // Pac-Man is placed by its top-left corner, centered in its spawn tile
+        pacman = new PacMan(layout.getPacmanCol() * TILE_SIZE + TILE_SIZE / 2.0 - 11,
+                layout.getPacmanRow() * TILE_SIZE + TILE_SIZE / 2.0 - 11);
+
+        // Initialize ghosts with their scatter targets
+        for (int i = 0; i < layout.getGhostCount(); i++) {
+            ghosts.add(new Ghost(TILE_SIZE * layout.getGhostCol(i), TILE_SIZE * layout.getGhostRow(i),
+                    layout.getScatterRow(i), layout.getScatterCol(i), this, layout.getGhostType(i)));
+        }
+        separateGhosts = ghostCount > layout.getGhostCount() && layout.getGhostCount() > 0;
+        if (separateGhosts) addExtraGhosts(layout, ghostCount);
+
+        grid = new SpatialGrid(ROWS, COLS, TILE_SIZE, ghosts.size());
+        for (int i = 0; i < ghosts.size(); i++) grid.move(i, ghosts.get(i).getX(), ghosts.get(i).getY());
+
+        Ghost first = ghosts.isEmpty() ? null : ghosts.get(0);
+        for (Ghost g : ghosts) {
+            if (g.getType() == Ghost.GhostType.BLINKY) {
+                first = g;
+                break;
+            }
+        }
+        blinky = first;
+    }
+
+    // Extra ghosts repeat the level's ghost types and scatter corners, and start on
+    // random open tiles away from Pac-Man so they do not all leave the same pen
+    private void addExtraGhosts(Level layout, int ghostCount) {
+        int pacRow = layout.getPacmanRow(), pacCol = layout.getPacmanCol();
+        int[] open = new int[ROWS * COLS];
+        int count = 0;
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                if (map[r][c] == 0 && Math.abs(r - pacRow) + Math.abs(c - pacCol) > 8) open[count++] = r * COLS + c;
+            }
+        }
+        for (int i = layout.getGhostCount(); i < ghostCount; i++) {
+            int source = i % layout.getGhostCount();
+            int row = layout.getGhostRow(source), col = layout.getGhostCol(source);
+            if (count > 0) {
+                int tile = open[random.nextInt(count)];
+                row = tile / COLS;
+                col = tile % COLS;
+            }
+            ghosts.add(new Ghost(TILE_SIZE * col, TILE_SIZE * row,
+                    layout.getScatterRow(source), layout.getScatterCol(source), this, layout.getGhostType(source)));
+        }
+    }
+
+    public static long newSeed() {
+        return new Random().nextLong();
+    }
+
+    private static int validLevel(int level) {
+        return level < 0 || level >= Levels.count() ? 0 : level;
+    }
+
+    // Applies the input direction (or null to keep the current one) and runs one tick
+    public Status step(Direction input) {
+        if (status != Status.RUNNING) return status;
+        if (input != null) pacman.setDirection(input);
+        // Whichever thread steps the game routes its ghosts with that thread's cache
+        if (routes == null) flowFields = layout.getFlowFields();
+
+        long start = profiler != null ? System.nanoTime() : 0;
+        ticks++;
+        pacman.update(this);
+
+        long pelletStart = profiler != null ? System.nanoTime() : 0;
+        // Only the tile under Pac-Man's center can hold a pellet within its radius
+        int pr = (int) (pacman.getY() / TILE_SIZE);
+        int pc = (int) (pacman.getX() / TILE_SIZE);
+        if (pellets.has(pr, pc)
+                && pacman.checkPelletCollision(pc * TILE_SIZE + TILE_SIZE / 2.0, pr * TILE_SIZE + TILE_SIZE / 2.0)) {
+            pellets.eat(pr, pc);
+            score += 10;
+        }
+
+        long aiStart = profiler != null ? System.nanoTime() : 0;
+        // Indexed loop: no iterator allocated per tick
+        for (int i = 0; i < ghosts.size(); i++) {
+            Ghost g = ghosts.get(i);
+            if (separateGhosts && crowded(i)) {
+                g.hold();
+            } else {
+                g.update(pacman.getX(), pacman.getY(), pacman.getDirection(), blinky.getX(), blinky.getY());
+            }
+            grid.move(i, g.getX(), g.getY());
+        }
+
+        // Only ghosts in the 3x3 tiles around Pac-Man can be within catching distance
+        caughtBy = nearestCatch();
+        if (caughtBy != null) status = Status.LOST;
+
+        if (status == Status.RUNNING && pellets.isEmpty()) {
+            status = Status.WON;
+        }
+
+        if (profiler != null) {
+            long end = System.nanoTime();
+            profiler.add(FrameProfiler.Section.PELLETS, aiStart - pelletStart);
+            profiler.add(FrameProfiler.Section.GHOST_AI, end - aiStart);
+            profiler.add(FrameProfiler.Section.SIMULATION, end - start);
+        }
+        return status;
+    }
+
+    // The lowest-numbered ghost touching Pac-Man, or null
+    private Ghost nearestCatch() {
+        int row = grid.cellRow(pacman.getY()), col = grid.cellCol(pacman.getX());
+        int found = -1;
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                for (int id = grid.first(grid.cellIndex(r, c)); id != -1; id = grid.next(id)) {
+                    if ((found == -1 || id < found) && ghosts.get(id).checkPacmanCollision(pacman.getX(), pacman.getY())) {
+                        found = id;
+                    }
+                }
+            }
+        }
+        return found == -1 ? null : ghosts.get(found);
+    }
+
+    // True if ghost i overlaps a lower-numbered ghost; that one moves first, so
+    // every cluster always has a ghost that can leave it
+    private boolean crowded(int i) {
+        Ghost g = ghosts.get(i);
+        double min = g.getSize() / 2;
+        int row = grid.cellRow(g.getY()), col = grid.cellCol(g.getX());
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                for (int id = grid.first(grid.cellIndex(r, c)); id != -1; id = grid.next(id)) {
+                    if (id >= i) continue;
+                    Ghost other = ghosts.get(id);
+                    double dx = other.getX() - g.getX(), dy = other.getY() - g.getY();
+                    if (dx * dx + dy * dy < min * min) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Times the pellet and ghost sections of each step; null turns timing off
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public boolean isOver() {
+        return status != Status.RUNNING;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    // The ghost that caught Pac-Man, or null unless the game was lost
+    public Ghost getCaughtBy() {
+        return caughtBy;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getElapsedSeconds() {
+        return (int) (ticks / GameClock.TICKS_PER_SECOND);
+    }
+
+    Random getRandom() {
+        return random;
+    }
+
+    // Direction of the first step from one tile towards another (0 up, 1 down,
+    // 2 left, 3 right), or -1. Small mazes have every route precomputed; larger
+    // ones share a flow field per target between all ghosts
+    int firstMove(int fromRow, int fromCol, int toRow, int toCol) {
+        if (routes != null) return routes.firstMove(fromRow, fromCol, toRow, toCol);
+        return flowFields.firstMove(fromRow, fromCol, toRow, toCol);
+    }
+
+    public PelletGrid getPellets() {
+        return pellets;
+    }
+
+    public PacMan getPacMan() {
+        return pacman;
+    }
+
+    public List<Ghost> getGhosts() {
+        return ghostsView;
+    }
+
+    // Ghost ids (indexes into getGhosts) by the tile their center is in
+    public SpatialGrid getGrid() {
+        return grid;
+    }
+}
@@ -0,0 +1,226 @@
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+
+import java.util.List;
+
+// Draws a GameEngine's state; holds everything JavaFX the engine must not.
+// Walls and pellets are drawn on canvases covering a window of up to
+// LAYER_VIEWS views each way around the camera (the whole maze when it fits).
+// The view clips them, and a camera move only shifts them. They are redrawn
+// when the camera leaves that window, and a pellet eaten clears only the
+// tiles in view. Pac-Man, visible ghosts and the HUD are drawn every frame on a
+// view-sized canvas, as unscaled copies from the shared SpriteAtlas.
+public class GameRenderer {
+
+    private static final Font HUD_FONT = Font.font(20);
+    private static final Font OVERLAY_FONT = Font.font("Monospaced", 13);
+    private static final Color OVERLAY_BACKGROUND = Color.rgb(0, 0, 0, 0.7);
+    // Static layers span this many views across and down, bounding their memory on huge mazes
+    private static final int LAYER_VIEWS = 3;
+
+    private final GameEngine engine;
+    private final Canvas mazeLayer;
+    private final Canvas pelletLayer;
+    private final Canvas spriteLayer;
+    private final Pane view;
+    private final Camera camera;
+    private final int mazeWidth, mazeHeight;
+    private final int layerWidth, layerHeight;
+    private int layerX = -1, layerY = -1; // maze pixel at the static layers' top-left; -1 until drawn
+    private int drawnPellets = -1;
+    private String[] overlayLines;
+    // HUD text is rebuilt only when the value it shows changes, not every frame
+    private int hudScore = -1;
+    private int hudSeconds = -1;
+    private String scoreText;
+    private String timeText;
+    private final SpriteAtlas sprites;
+
+    public GameRenderer(GameEngine engine) {
+        this.engine = engine;
+
+        camera = new Camera(engine.COLS, engine.ROWS, engine.TILE_SIZE);
+        int width = camera.getViewWidth();
+        int height = camera.getViewHeight();
+        mazeWidth = engine.COLS * engine.TILE_SIZE;
+        mazeHeight = engine.ROWS * engine.TILE_SIZE;
+        layerWidth = Math.min(mazeWidth, width * LAYER_VIEWS);
+        layerHeight = Math.min(mazeHeight, height * LAYER_VIEWS);
+        mazeLayer = new Canvas(layerWidth, layerHeight);
+        pelletLayer = new Canvas(layerWidth, layerHeight);
+        spriteLayer = new Canvas(width, height);
+        view = new Pane(mazeLayer, pelletLayer, spriteLayer);
+        view.setMinSize(width, height);
+        view.setPrefSize(width, height);
+        view.setMaxSize(width, height);
+        view.setClip(new Rectangle(width, height));
+        sprites = SpriteAtlas.get();
+    }
+
+    // The layered canvases to place in the scene
+    public Node getView() {
+        return view;
+    }
+
+    public double getWidth() {
+        return spriteLayer.getWidth();
+    }
+
+    public double getHeight() {
+        return spriteLayer.getHeight();
+    }
+
+    // Re-centers the static layers' window on the view and draws it whole
+    private void drawLayers() {
+        int tile = engine.TILE_SIZE;
+        layerX = clamp(camera.getX() + (camera.getViewWidth() - layerWidth) / 2, mazeWidth - layerWidth);
+        layerY = clamp(camera.getY() + (camera.getViewHeight() - layerHeight) / 2, mazeHeight - layerHeight);
+        // One tile beyond each edge so walls straddling it are not cut off
+        int firstRow = Math.max(0, layerY / tile - 1);
+        int lastRow = Math.min(engine.ROWS - 1, (layerY + layerHeight - 1) / tile + 1);
+        int firstCol = Math.max(0, layerX / tile - 1);
+        int lastCol = Math.min(engine.COLS - 1, (layerX + layerWidth - 1) / tile + 1);
+        drawMaze(firstRow, lastRow, firstCol, lastCol);
+        drawPellets(firstRow, lastRow, firstCol, lastCol);
+    }
+
+    private static int clamp(int v, int max) {
+        return Math.max(0, Math.min(max, v));
+    }
+
+    // True while the view lies inside the static layers' window
+    private boolean layersCoverView() {
+        return layerX >= 0 && camera.getX() >= layerX && camera.getY() >= layerY
+                && camera.getX() + camera.getViewWidth() <= layerX + layerWidth
+                && camera.getY() + camera.getViewHeight() <= layerY + layerHeight;
+    }
+
+    private void drawMaze(int firstRow, int lastRow, int firstCol, int lastCol) {
+        GraphicsContext gc = mazeLayer.getGraphicsContext2D();
+        int tile = engine.TILE_SIZE;
+
+        gc.setFill(Color.BLACK);
+        gc.fillRect(0, 0, mazeLayer.getWidth(), mazeLayer.getHeight());
+
+        gc.save();
+        gc.translate(-layerX, -layerY);
+        gc.setStroke(Color.BLUE);
+        gc.setLineWidth(3);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                if (engine.map[r][c] == 1) {
+                    gc.strokeRect(c * tile, r * tile, tile, tile);
+                }
+            }
+        }
+        gc.restore();
+    }
+
+    // Clears and redraws the pellets of a tile range
+    private void drawPellets(int firstRow, int lastRow, int firstCol, int lastCol) {
+        GraphicsContext gc = pelletLayer.getGraphicsContext2D();
+        PelletGrid pellets = engine.getPellets();
+        int tile = engine.TILE_SIZE;
+
+        gc.save();
+        gc.translate(-layerX, -layerY);
+        gc.clearRect(firstCol * tile, firstRow * tile, (lastCol - firstCol + 1) * tile, (lastRow - firstRow + 1) * tile);
+        gc.setFill(Color.WHITE);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                if (pellets.has(r, c)) {
+                    double px = c * tile + tile / 2.0;
+                    double py = r * tile + tile / 2.0;
+                    gc.fillOval(px - 2, py - 2, 4, 4);
+                }
+            }
+        }
+        gc.restore();
+        drawnPellets = pellets.remaining();
+    }
+
+    public void render(double alpha) {
+        PacMan pacman = engine.getPacMan();
+        double half = pacman.getSize() / 2;
+        camera.follow(pacman.getDrawX(alpha) + half, pacman.getDrawY(alpha) + half);
+        if (!layersCoverView()) {
+            drawLayers();
+        } else if (engine.getPellets().remaining() != drawnPellets) {
+            // Only Pac-Man eats, and the camera keeps him in view
+            drawPellets(camera.firstRow(), camera.lastRow(), camera.firstCol(), camera.lastCol());
+        }
+        mazeLayer.setTranslateX(layerX - camera.getX());
+        mazeLayer.setTranslateY(layerY - camera.getY());
+        pelletLayer.setTranslateX(layerX - camera.getX());
+        pelletLayer.setTranslateY(layerY - camera.getY());
+
+        GraphicsContext gc = spriteLayer.getGraphicsContext2D();
+        gc.clearRect(0, 0, spriteLayer.getWidth(), spriteLayer.getHeight());
+
+        gc.save();
+        gc.translate(-camera.getX(), -camera.getY());
+        // Only the tile buckets in view: a ghost reaches less than a tile from its
+        // center, so one centered outside the camera's margin cannot be seen
+        List<Ghost> ghosts = engine.getGhosts();
+        SpatialGrid grid = engine.getGrid();
+        for (int r = camera.firstRow(); r <= camera.lastRow(); r++) {
+            for (int c = camera.firstCol(); c <= camera.lastCol(); c++) {
+                for (int id = grid.first(grid.cellIndex(r, c)); id != -1; id = grid.next(id)) {
+                    drawGhost(gc, ghosts.get(id), alpha);
+                }
+            }
+        }
+        drawPacMan(gc, pacman, alpha);
+        gc.restore();
+
+        // HUD and overlay stay fixed on screen
+        gc.setFill(Color.WHITE);
+        gc.setFont(HUD_FONT);
+        if (engine.getScore() != hudScore) {
+            hudScore = engine.getScore();
+            scoreText = "Score: " + hudScore;
+        }
+        if (engine.getElapsedSeconds() != hudSeconds) {
+            hudSeconds = engine.getElapsedSeconds();
+            timeText = "Time: " + hudSeconds + "s";
+        }
+        gc.fillText(scoreText, 10, 25);
+        gc.fillText(timeText, 120, 25);
+
+        if (overlayLines != null) drawOverlay(gc);
+    }
+
+    // Profiler text shown over the maze; null hides it
+    public void setOverlayText(String text) {
+        overlayLines = text == null ? null : text.split("\n");
+    }
+
+    private void drawOverlay(GraphicsContext gc) {
+        double lineHeight = 16;
+        double top = 40;
+        gc.setFill(OVERLAY_BACKGROUND);
+        gc.fillRect(6, top, 300, overlayLines.length * lineHeight + 10);
+        gc.setFill(Color.LIME);
+        gc.setFont(OVERLAY_FONT);
+        for (int i = 0; i < overlayLines.length; i++) {
+            gc.fillText(overlayLines[i], 12, top + 16 + i * lineHeight);
+        }
+    }
+
+    private void drawGhost(GraphicsContext gc, Ghost g, double alpha) {
+        double half = g.getSize() / 2;
+        sprites.drawGhost(gc, g.getType(), g.getState() == Ghost.GhostState.FRIGHTENED,
+                g.getDrawX(alpha) - half, g.getDrawY(alpha) - half);
+    }
+
+    private void drawPacMan(GraphicsContext gc, PacMan pacman, double alpha) {
+        // Pac-Man is drawn from its top-left corner (x,y)
+        sprites.drawPacMan(gc, pacman.getDirection(), pacman.getMouthAngle(),
+                pacman.getDrawX(alpha), pacman.getDrawY(alpha));
+    }
+}
@@ -0,0 +1,35 @@
+import java.sql.Timestamp;
+
+public class GameResult {
+    private final long id;
+    private final int score;
+    private final int timeTaken;
+    private final Timestamp playedAt;
+
+    public GameResult(long id, int score, int timeTaken, Timestamp playedAt) {
+        this.id = id;
+        this.score = score;
+        this.timeTaken = timeTaken;
+        this.playedAt = playedAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getTimeTaken() {
+        return timeTaken;
+    }
+
+    public String getPlayedAt() {
+        return playedAt.toString();
+    }
+
+    public Timestamp getPlayedAtTimestamp() {
+        return playedAt;
+    }
+}
@@ -0,0 +1,498 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Hosts many independent games in one JVM for thin clients (see
+// ServerProtocol). Games are spread over a few tick shards: each shard is one
+// thread that steps all of its games once per 60 Hz tick, so hundreds of
+// games share a handful of threads and every game only ever runs on its own
+// shard. A single I/O thread accepts connections, reads inputs and writes the
+// frames the shards queue. A setup thread builds each new game's engine, so
+// neither the I/O thread nor a shard stalls on a large maze; shards only ever
+// receive games that are ready to tick. Nothing here touches JavaFX or Session.
+//
+// Usage: GameServer [--port N] [--host H] [--shards N] [--max-games N]
+//                   [--update-every TICKS] [--max-minutes M] [--report S]
+public class GameServer implements AutoCloseable {
+
+    // Per connection: a few seconds of updates at 30 Hz before a stalled client is dropped
+    private static final int OUT_CAPACITY = 32 * 1024;
+    private static final int IN_CAPACITY = 1024;
+    static final int CONNECTION_BUFFER_BYTES = OUT_CAPACITY + IN_CAPACITY;
+    private static final int MAX_GHOSTS = 1024;
+    // JOIN's int level, long seed, int ghosts and the name's length prefix
+    private static final int JOIN_FIXED_BYTES = 18;
+    // A shard further behind than this skips ticks rather than running them back to back
+    private static final long MAX_BEHIND_NANOS = 5 * GameClock.TICK_NANOS;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final InetAddress host;
+    private final int requestedPort;
+    private final int maxGames;
+    private final int updateEvery;
+    private final long maxTicks;
+    private final TickShard[] shards;
+
+    private Selector selector;
+    private ServerSocketChannel listener;
+    private Thread ioThread;
+    private volatile boolean running;
+    private final ExecutorService setup = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "game-setup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Queue<Connection> flushQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nextGameId = new AtomicInteger();
+    private final AtomicInteger activeGames = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong gamesStarted = new AtomicLong();
+    private final AtomicLong gamesFinished = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong clientsDropped = new AtomicLong();
+    private long lastReport = System.nanoTime();
+
+    // One client connection; it plays at most one game at a time
+    static class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocate(IN_CAPACITY);
+        // Frames waiting to be written, in write mode; guarded by this
+        final ByteBuffer out = ByteBuffer.allocate(OUT_CAPACITY);
+        boolean overflowed;
+        boolean closed; // I/O thread only
+        final AtomicBoolean queued = new AtomicBoolean();
+        GameSession game; // I/O thread only
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        synchronized void sendError(String message) {
+            int start = ServerProtocol.begin(out, ServerProtocol.ERROR, ServerProtocol.stringSize(message));
+            if (start < 0) {
+                overflowed = true;
+                return;
+            }
+            ServerProtocol.putString(out, message);
+            ServerProtocol.end(out, start);
+        }
+    }
+
+    public GameServer(InetAddress host, int port, int shardCount, int maxGames, int updateEvery, long maxTicks) {
+        this.host = host;
+        this.requestedPort = port;
+        this.maxGames = maxGames;
+        this.updateEvery = Math.max(1, updateEvery);
+        this.maxTicks = maxTicks;
+        this.shards = new TickShard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) shards[i] = new TickShard();
+    }
+
+    public synchronized void start() throws IOException {
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress(host, requestedPort));
+        listener.configureBlocking(false);
+        listener.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        lastReport = System.nanoTime();
+
+        ioThread = new Thread(this::ioLoop, "game-server-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+        for (int i = 0; i < shards.length; i++) {
+            Thread t = new Thread(shards[i], "game-shard-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    public int getPort() {
+        return listener.socket().getLocalPort();
+    }
+
+    public int getActiveGames() {
+        return activeGames.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        setup.shutdownNow();
+        if (selector != null) selector.wakeup();
+        try {
+            if (ioThread != null) ioThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- I/O thread ----
+
+    private void ioLoop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection c = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) read(c);
+                        if (key.isValid() && key.isWritable()) flush(c);
+                    } catch (IOException e) {
+                        disconnect(c, null);
+                    } catch (RuntimeException e) {
+                        disconnect(c, e.toString());
+                    }
+                }
+                Connection c;
+                while ((c = flushQueue.poll()) != null) {
+                    try {
+                        flush(c);
+                    } catch (IOException e) {
+                        disconnect(c, null);
+                    } catch (RuntimeException e) {
+                        disconnect(c, e.toString());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = listener.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(java.net.StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+            connections.incrementAndGet();
+        }
+    }
+
+    private void read(Connection c) throws IOException {
+        if (c.channel.read(c.in) < 0) {
+            disconnect(c, null);
+            return;
+        }
+        c.in.flip();
+        int length;
+        while ((length = ServerProtocol.available(c.in)) >= 0) {
+            if (length == 0) throw new IllegalStateException("empty frame");
+            int end = c.in.position() + 2 + length;
+            c.in.position(c.in.position() + 2);
+            handle(c, c.in.get(), end);
+            c.in.position(end);
+        }
+        c.in.compact();
+        if (!c.in.hasRemaining()) throw new IllegalStateException("frame too large");
+        if (c.out.position() > 0) flush(c);
+    }
+
+    // Decodes one frame whose payload ends at `end`; a payload too short for its type is rejected, never read past
+    private void handle(Connection c, byte type, int end) {
+        switch (type) {
+            case ServerProtocol.JOIN -> {
+                if (end - c.in.position() < JOIN_FIXED_BYTES) {
+                    c.sendError("Bad JOIN");
+                    return;
+                }
+                int level = c.in.getInt();
+                long seed = c.in.getLong();
+                int ghosts = c.in.getInt();
+                int nameBytes = c.in.getShort(c.in.position()) & 0xFFFF;
+                if (nameBytes > end - c.in.position() - 2) {
+                    c.sendError("Bad JOIN");
+                    return;
+                }
+                String name = ServerProtocol.getString(c.in);
+                if (c.game != null && !c.game.isFinished()) {
+                    c.sendError("Already in a game");
+                } else if (ghosts < 0 || ghosts > MAX_GHOSTS || name.length() > ServerProtocol.MAX_NAME_LENGTH) {
+                    c.sendError("Bad JOIN");
+                } else if (activeGames.incrementAndGet() > maxGames) {
+                    activeGames.decrementAndGet();
+                    c.sendError("Server full");
+                } else {
+                    GameSession session = new GameSession(nextGameId.incrementAndGet(), name, c, level, seed, ghosts,
+                            updateEvery, maxTicks);
+                    c.game = session;
+                    gamesStarted.incrementAndGet();
+                    setup.execute(() -> setUp(session));
+                }
+            }
+            case ServerProtocol.INPUT -> {
+                if (end - c.in.position() < 1) return;
+                int direction = c.in.get();
+                if (c.game != null && direction >= 0 && direction < 4) c.game.setInput(direction);
+            }
+            case ServerProtocol.LEAVE -> {
+                if (c.game != null) c.game.stop();
+            }
+            default -> c.sendError("Unknown message " + type);
+        }
+    }
+
+    // Setup thread: builds the game and hands it to a shard, or releases its slot if it cannot be hosted
+    private void setUp(GameSession session) {
+        if (session.start()) {
+            leastLoaded().add(session);
+        } else {
+            activeGames.decrementAndGet();
+            gamesFinished.incrementAndGet();
+        }
+        // The JOINED frame, or the error, goes out without waiting for a shard tick
+        if (queueFlush(session.connection)) selector.wakeup();
+    }
+
+    // Hands a connection with pending frames to the I/O thread; true if it was queued
+    private boolean queueFlush(Connection c) {
+        synchronized (c) {
+            if (c.out.position() == 0 && !c.overflowed) return false;
+        }
+        if (!c.queued.compareAndSet(false, true)) return false;
+        flushQueue.add(c);
+        return true;
+    }
+
+    private TickShard leastLoaded() {
+        TickShard best = shards[0];
+        for (TickShard shard : shards) {
+            if (shard.assigned.get() < best.assigned.get()) best = shard;
+        }
+        return best;
+    }
+
+    private void flush(Connection c) throws IOException {
+        c.queued.set(false);
+        if (c.closed) return;
+        synchronized (c) {
+            if (c.overflowed) throw new IllegalStateException("client is not reading its updates");
+            c.out.flip();
+            bytesOut.addAndGet(c.channel.write(c.out));
+            boolean left = c.out.hasRemaining();
+            c.out.compact();
+            c.key.interestOps(left ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    // A client that went away is routine; one dropped for a bad frame or a full buffer is logged
+    private void disconnect(Connection c, String reason) {
+        if (c.closed) return;
+        c.closed = true;
+        if (c.game != null) c.game.stop();
+        c.key.cancel();
+        try {
+            c.channel.close();
+        } catch (IOException ignored) {
+        }
+        connections.decrementAndGet();
+        if (reason != null) {
+            clientsDropped.incrementAndGet();
+            Log.warn(Log.Category.GAME, "Dropped client: %s", reason);
+        }
+    }
+
+    // ---- Tick shards ----
+
+    private class TickShard implements Runnable {
+        // Sessions set up and ready to tick, added by the setup thread
+        final Queue<GameSession> joining = new ConcurrentLinkedQueue<>();
+        final List<GameSession> sessions = new ArrayList<>();
+        // Games added to this shard and not yet finished, for placing new games
+        final AtomicInteger assigned = new AtomicInteger();
+
+        // Since the last report; guarded by this
+        final LatencyHistogram tickTimes = new LatencyHistogram();
+        long ticks, gameTicks, cpuNanos, allocatedBytes, lateTicks, droppedTicks;
+
+        void add(GameSession session) {
+            assigned.incrementAndGet();
+            joining.add(session);
+        }
+
+        @Override
+        public void run() {
+            long next = System.nanoTime();
+            while (running) {
+                long start = System.nanoTime();
+                long cpuStart = THREADS.getCurrentThreadCpuTime();
+                long allocatedStart = THREADS.getCurrentThreadAllocatedBytes();
+                boolean wrote = false;
+
+                GameSession joined;
+                while ((joined = joining.poll()) != null) sessions.add(joined);
+                int stepped = sessions.size();
+                for (int i = 0; i < sessions.size(); i++) {
+                    GameSession session = sessions.get(i);
+                    if (!session.tick()) {
+                        // Freed before its OVER goes out, so the client can join again at once
+                        finish();
+                        // Swap-remove: order within a shard does not matter
+                        int last = sessions.size() - 1;
+                        sessions.set(i, sessions.get(last));
+                        sessions.remove(last);
+                        i--;
+                    }
+                    wrote |= queueFlush(session.connection);
+                }
+                if (wrote) selector.wakeup();
+
+                long end = System.nanoTime();
+                long cpu = THREADS.getCurrentThreadCpuTime() - cpuStart;
+                long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedStart;
+                next += GameClock.TICK_NANOS;
+                long dropped = 0;
+                if (end - next > MAX_BEHIND_NANOS) {
+                    dropped = (end - next) / GameClock.TICK_NANOS;
+                    next = end;
+                }
+                synchronized (this) {
+                    tickTimes.record(end - start);
+                    ticks++;
+                    gameTicks += stepped;
+                    cpuNanos += cpu;
+                    allocatedBytes += allocated;
+                    if (end - start > GameClock.TICK_NANOS) lateTicks++;
+                    droppedTicks += dropped;
+                }
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+            }
+        }
+
+        private void finish() {
+            assigned.decrementAndGet();
+            activeGames.decrementAndGet();
+            gamesFinished.incrementAndGet();
+        }
+    }
+
+    // ---- Reporting ----
+
+    // Load and per-game cost since the previous report, for sizing hosts
+    public String report() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - lastReport) / 1e9);
+        lastReport = now;
+
+        LatencyHistogram tickTimes = new LatencyHistogram();
+        long ticks = 0, gameTicks = 0, cpuNanos = 0, allocated = 0, late = 0, dropped = 0;
+        StringBuilder perShard = new StringBuilder();
+        for (TickShard shard : shards) {
+            synchronized (shard) {
+                tickTimes.merge(shard.tickTimes);
+                shard.tickTimes.reset();
+                ticks += shard.ticks;
+                gameTicks += shard.gameTicks;
+                cpuNanos += shard.cpuNanos;
+                allocated += shard.allocatedBytes;
+                late += shard.lateTicks;
+                dropped += shard.droppedTicks;
+                shard.ticks = shard.gameTicks = shard.cpuNanos = shard.allocatedBytes = shard.lateTicks = shard.droppedTicks = 0;
+            }
+            perShard.append(perShard.length() == 0 ? "" : "/").append(shard.assigned.get());
+        }
+
+        int active = activeGames.get();
+        double cpuPerGameTick = gameTicks == 0 ? 0 : (double) cpuNanos / gameTicks;
+        double coreShare = cpuPerGameTick * GameClock.TICKS_PER_SECOND / 1e9;
+        double gameSeconds = (double) gameTicks / GameClock.TICKS_PER_SECOND;
+        Runtime rt = Runtime.getRuntime();
+        long heapUsed = rt.totalMemory() - rt.freeMemory();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Games: %d active (%s per shard), %d started, %d finished; %d connections, %d dropped%n",
+                active, perShard, gamesStarted.get(), gamesFinished.get(), connections.get(), clientsDropped.get()));
+        sb.append(String.format("Shard ticks: %.1f/s per shard, tick time p50 %.2f ms, p99 %.2f ms, max %.2f ms, %d late, %d skipped%n",
+                ticks / seconds / shards.length, tickTimes.percentile(50) / 1e6, tickTimes.percentile(99) / 1e6,
+                tickTimes.getMax() / 1e6, late, dropped));
+        sb.append(String.format("Per game: %.1f us CPU per tick, %.3f%% of a core (~%s games per core), %.0f B allocated per tick%n",
+                cpuPerGameTick / 1e3, coreShare * 100, coreShare == 0 ? "-" : String.valueOf((int) (1 / coreShare)),
+                gameTicks == 0 ? 0.0 : (double) allocated / gameTicks));
+        sb.append(String.format("Network: %.0f B/s out per game%n",
+                gameSeconds == 0 ? 0.0 : bytesOut.getAndSet(0) / gameSeconds));
+        sb.append(String.format("Heap: %d MB in use (%s per active game, including garbage)",
+                heapUsed >> 20, active == 0 ? "-" : (heapUsed / active >> 10) + " KB"));
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        int port = ServerProtocol.DEFAULT_PORT;
+        int shardCount = Runtime.getRuntime().availableProcessors();
+        int maxGames = 1000;
+        int updateEvery = 2;
+        double maxMinutes = 10;
+        double reportSeconds = 10;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(value);
+                case "--host" -> host = InetAddress.getByName(value);
+                case "--shards" -> shardCount = Integer.parseInt(value);
+                case "--max-games" -> maxGames = Integer.parseInt(value);
+                case "--update-every" -> updateEvery = Integer.parseInt(value);
+                case "--max-minutes" -> maxMinutes = Double.parseDouble(value);
+                case "--report" -> reportSeconds = Double.parseDouble(value);
+                default -> {
+                    System.out.println("Unknown option " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        GameServer server = new GameServer(host, port, shardCount, maxGames, updateEvery,
+                GameClock.secondsToTicks(maxMinutes * 60));
+        server.start();
+        System.out.printf("Game server on %s:%d, %d shards, up to %d games%n",
+                host.getHostAddress(), server.getPort(), shardCount, maxGames);
+        while (true) {
+            Thread.sleep((long) (reportSeconds * 1000));
+            System.out.println(server.report());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One game hosted by GameServer. The engine is created by the server's setup
+// thread before the session reaches its shard, then stepped only by that
+// shard's thread; the I/O thread hands in inputs through `input` and stops the
+// game through `stopped`. Each tick's output is
+// appended to the connection's buffer, which the I/O thread writes out.
+public class GameSession {
+
+    private static final int NO_INPUT = -1;
+
+    final int id;
+    final String player;
+    final GameServer.Connection connection;
+    private final int requestedLevel;
+    private final long requestedSeed;
+    private final int ghostCount;
+    private final int updateEvery;
+    private final long maxTicks;
+
+    private GameEngine engine;
+    private final AtomicInteger input = new AtomicInteger(NO_INPUT);
+    private volatile boolean stopped;
+    private volatile boolean finished;
+
+    // Pellets eaten since the last STATE, as row * cols + col
+    private int[] eaten = new int[16];
+    private int eatenCount;
+
+    GameSession(int id, String player, GameServer.Connection connection, int level, long seed, int ghostCount,
+                int updateEvery, long maxTicks) {
+        this.id = id;
+        this.player = player;
+        this.connection = connection;
+        this.requestedLevel = level;
+        this.requestedSeed = seed;
+        this.ghostCount = ghostCount;
+        this.updateEvery = updateEvery;
+        this.maxTicks = maxTicks;
+    }
+
+    // Builds the engine and announces the game, on the setup thread; false if it cannot be hosted
+    boolean start() {
+        if (stopped) {
+            finished = true;
+            return false;
+        }
+        long seed = requestedSeed != 0 ? requestedSeed : GameEngine.newSeed();
+        engine = new GameEngine(requestedLevel, seed, GhostRules.DEFAULT, ghostCount);
+        int widest = Math.max(engine.ROWS, engine.COLS) * engine.TILE_SIZE * ServerProtocol.POSITION_SCALE;
+        if (widest > Short.MAX_VALUE) {
+            connection.sendError("Maze is too large to host");
+            finished = true;
+            return false;
+        }
+        List<Ghost> ghosts = engine.getGhosts();
+        synchronized (connection) {
+            ByteBuffer out = connection.out;
+            int start = ServerProtocol.begin(out, ServerProtocol.JOINED, 22 + ghosts.size());
+            if (start < 0) {
+                connection.overflowed = true;
+                finished = true;
+                return false;
+            }
+            out.putInt(id);
+            out.putInt(engine.level);
+            out.putLong(seed);
+            out.putShort((short) engine.ROWS);
+            out.putShort((short) engine.COLS);
+            out.putShort((short) ghosts.size());
+            for (int i = 0; i < ghosts.size(); i++) out.put((byte) ghosts.get(i).getType().ordinal());
+            ServerProtocol.end(out, start);
+        }
+        return true;
+    }
+
+    // Runs one tick; false once the game is over or was stopped, after its last frames are queued
+    boolean tick() {
+        if (stopped) {
+            writeOver();
+            finished = true;
+            return false;
+        }
+        int next = input.getAndSet(NO_INPUT);
+        PelletGrid pellets = engine.getPellets();
+        int before = pellets.remaining();
+        GameEngine.Status status = engine.step(next == NO_INPUT ? null : Direction.of(next));
+        if (pellets.remaining() < before) {
+            // The engine eats the pellet under Pac-Man's center
+            PacMan pac = engine.getPacMan();
+            int row = (int) (pac.getY() / engine.TILE_SIZE);
+            int col = (int) (pac.getX() / engine.TILE_SIZE);
+            if (eatenCount == eaten.length) eaten = Arrays.copyOf(eaten, eatenCount * 2);
+            eaten[eatenCount++] = row * engine.COLS + col;
+        }
+
+        boolean over = status != GameEngine.Status.RUNNING || engine.getTicks() >= maxTicks;
+        if (over || engine.getTicks() % updateEvery == 0) writeState();
+        if (over) {
+            writeOver();
+            finished = true;
+        }
+        return !over;
+    }
+
+    private void writeState() {
+        List<Ghost> ghosts = engine.getGhosts();
+        synchronized (connection) {
+            ByteBuffer out = connection.out;
+            int start = ServerProtocol.begin(out, ServerProtocol.STATE, 18 + 5 * ghosts.size() + 4 * eatenCount);
+            if (start < 0) {
+                // The client is not reading; the I/O thread drops it
+                connection.overflowed = true;
+                return;
+            }
+            PacMan pac = engine.getPacMan();
+            out.putInt((int) engine.getTicks());
+            out.putInt(engine.getScore());
+            out.putShort(ServerProtocol.position(pac.getX()));
+            out.putShort(ServerProtocol.position(pac.getY()));
+            out.put((byte) pac.getDirection().ordinal());
+            out.putShort((short) ghosts.size());
+            for (int i = 0; i < ghosts.size(); i++) {
+                Ghost g = ghosts.get(i);
+                out.putShort(ServerProtocol.position(g.getX()));
+                out.putShort(ServerProtocol.position(g.getY()));
+                out.put((byte) g.getState().ordinal());
+            }
+            out.putShort((short) eatenCount);
+            for (int i = 0; i < eatenCount; i++) out.putInt(eaten[i]);
+            ServerProtocol.end(out, start);
+        }
+        eatenCount = 0;
+    }
+
+    private void writeOver() {
+        synchronized (connection) {
+            ByteBuffer out = connection.out;
+            int start = ServerProtocol.begin(out, ServerProtocol.OVER, 9);
+            if (start < 0) {
+                connection.overflowed = true;
+                return;
+            }
+            out.put((byte) engine.getStatus().ordinal());
+            out.putInt(engine.getScore());
+            out.putInt((int) engine.getTicks());
+            ServerProtocol.end(out, start);
+        }
+    }
+
+    // Called from the I/O thread; the latest direction before a tick wins, as with the keyboard
+    void setInput(int direction) {
+        input.set(direction);
+    }
+
+    // Called from the I/O thread when the client leaves or disconnects
+    void stop() {
+        stopped = true;
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+}
@@ -1,7 +1,4 @@
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
-import javafx.scene.paint.Color;
-import java.util.*;
+import java.util.Random;
 
 public class Ghost {
 
@@ -9,66 +6,54 @@ public class Ghost {
     public enum GhostState { SCATTER, CHASE, FRIGHTENED }
 
     private double x, y;
+    private double prevX, prevY; // Position at the previous tick, for interpolated drawing
     private final double size = 40;
     private final double speed = 1.5;  // Increased speed for visibility
     private double speedX = 0, speedY = 0;
 
-    private Color color;
     private GhostState state;
     private int targetRow, targetCol;
     private int scatterTargetRow, scatterTargetCol;
 
-    private final Game game;
-    private Image ghostImage;
+    private final GameEngine game;
     private GhostType type;
 
     private int lastDirection = -1;
-    private long stateStartTime; // For scatter/chase timing
+    private int stateTicks; // Ticks spent in the current state, for scatter/chase timing
 
-    private static final Random random = new Random();
+    private final Random random; // the engine's seeded generator
 
-    public Ghost(double startX, double startY, Color color, int scatterRow, int scatterCol, Game game, String imagePath, GhostType type) {
+    // Row/column offsets for directions 0 up, 1 down, 2 left, 3 right (Direction ordinals)
+    private static final int[] DR = {-1, 1, 0, 0};
+    private static final int[] DC = {0, 0, -1, 1};
+
+    // Scratch buffer for getRandomDirection, reused every call
+    private final int[] possible = new int[4];
+
+    public Ghost(double startX, double startY, int scatterRow, int scatterCol, GameEngine game, GhostType type) {
         this.x = startX + game.TILE_SIZE / 2.0;
         this.y = startY + game.TILE_SIZE / 2.0;
-        this.color = color;
         this.state = GhostState.CHASE;  // Force CHASE for debug
         this.scatterTargetRow = scatterRow;
         this.scatterTargetCol = scatterCol;
         this.game = game;
+        this.random = game.getRandom();
         this.type = type;
-        this.stateStartTime = System.currentTimeMillis();
+        this.prevX = x;
+        this.prevY = y;
 
         int row = (int) (y / game.TILE_SIZE);
         int col = (int) (x / game.TILE_SIZE);
         if (game.map[row][col] != 0) {
-            System.out.println(type + " spawned in wall at (" + row + "," + col + ")");
-        }
-
-        try {
-            var url = getClass().getResource(imagePath);
-            if (url != null) {
-                ghostImage = new Image(url.toExternalForm());
-            } else {
-                ghostImage = new Image("file:" + imagePath);
-            }
-
-            if (ghostImage.getWidth() == 0) {
-                ghostImage = null;
-                System.out.println(type + " ghost image failed to load.");
-            }
-        } catch (Exception e) {
-            ghostImage = null;
-            System.out.println(type + " ghost image failed to load with exception: " + e.getMessage());
+            Log.debug(Log.Category.GHOST_AI, "%s spawned in wall at (%d,%d)", type, row, col);
         }
     }
 
-    public void update(double pacX, double pacY, String pacDirection, double blinkyX, double blinkyY) {
-        long elapsed = System.currentTimeMillis() - stateStartTime;
-        if (state == GhostState.SCATTER && elapsed >= 7000) {
-            setState(GhostState.CHASE);
-        } else if (state == GhostState.CHASE && elapsed >= 20000) {
-            setState(GhostState.SCATTER);
-        }
+    // Advances the ghost by one simulation tick
+    public void update(double pacX, double pacY, Direction pacDirection, double blinkyX, double blinkyY) {
+        prevX = x;
+        prevY = y;
+        advanceStateTimer();
 
         int currentRow = (int) (y / game.TILE_SIZE);
         int currentCol = (int) (x / game.TILE_SIZE);
@@ -102,35 +87,25 @@ public class Ghost {
                         targetCol = (int) (pacX / game.TILE_SIZE);
                     }
                     case PINKY -> {
-                        int offset = 4;
+                        int offset = game.rules.pinkyLead;
                         int pacRow = (int) (pacY / game.TILE_SIZE);
                         int pacCol = (int) (pacX / game.TILE_SIZE);
-                        switch (pacDirection) {
-                            case "UP" -> pacRow -= offset;
-                            case "DOWN" -> pacRow += offset;
-                            case "LEFT" -> pacCol -= offset;
-                            case "RIGHT" -> pacCol += offset;
-                        }
+                        pacRow += pacDirection.dr * offset;
+                        pacCol += pacDirection.dc * offset;
                         targetRow = clamp(pacRow, 0, game.ROWS - 1);
                         targetCol = clamp(pacCol, 0, game.COLS - 1);
                     }
                     case INKY -> {
                         int pacRow = (int) (pacY / game.TILE_SIZE);
                         int pacCol = (int) (pacX / game.TILE_SIZE);
-                        int aheadRow = pacRow;
-                        int aheadCol = pacCol;
-                        switch (pacDirection) {
-                            case "UP" -> aheadRow -= 2;
-                            case "DOWN" -> aheadRow += 2;
-                            case "LEFT" -> aheadCol -= 2;
-                            case "RIGHT" -> aheadCol += 2;
-                        }
+                        int aheadRow = pacRow + pacDirection.dr * game.rules.inkyLead;
+                        int aheadCol = pacCol + pacDirection.dc * game.rules.inkyLead;
                         int blinkyRow = (int) (blinkyY / game.TILE_SIZE);
                         int blinkyCol = (int) (blinkyX / game.TILE_SIZE);
                         int vecRow = aheadRow - blinkyRow;
                         int vecCol = aheadCol - blinkyCol;
-                        targetRow = clamp(blinkyRow + vecRow * 2, 0, game.ROWS - 1);
-                        targetCol = clamp(blinkyCol + vecCol * 2, 0, game.COLS - 1);
+                        targetRow = clamp(blinkyRow + vecRow * game.rules.inkyScale, 0, game.ROWS - 1);
+                        targetCol = clamp(blinkyCol + vecCol * game.rules.inkyScale, 0, game.COLS - 1);
                     }
                     // Manhattan Distance – Clyde’s Scatter Logic
                     case CLYDE -> {
@@ -139,7 +114,7 @@ public class Ghost {
                         int r = (int) (y / game.TILE_SIZE);
                         int c = (int) (x / game.TILE_SIZE);
                         int dist = Math.abs(pacRow - r) + Math.abs(pacCol - c);
-                        if (dist > 8) {
+                        if (dist > game.rules.clydeRadius) {
                             targetRow = pacRow;
                             targetCol = pacCol;
                         } else {
@@ -155,42 +130,43 @@ public class Ghost {
             }
         }
 
-        if (type == GhostType.BLINKY) {
-            System.out.printf("Blinky: current tile (%d,%d), target tile (%d,%d), pacman (%.2f, %.2f)%n",
+        boolean tracing = Log.isEnabled(Log.Category.GHOST_AI, Log.Severity.DEBUG);
+        if (tracing && type == GhostType.BLINKY) {
+            Log.debug(Log.Category.GHOST_AI, "Blinky: current tile (%d,%d), target tile (%d,%d), pacman (%.2f, %.2f)",
                     currentRow, currentCol, targetRow, targetCol, pacX, pacY);
         }
 
         int nextDirection = bfsDirection();
 
-        if (nextDirection == -1) {
-            System.out.println(type + " BFS returned -1");
+        if (tracing && nextDirection == -1) {
+            Log.debug(Log.Category.GHOST_AI, "%s BFS returned -1", type);
         }
 
         if (nextDirection == -1 || !canMove(currentRow, currentCol, nextDirection)) {
             nextDirection = getRandomDirection(currentRow, currentCol);
-            if (nextDirection != -1) {
-                System.out.println(type + " picked random direction: " + nextDirection);
+            if (tracing && nextDirection != -1) {
+                Log.debug(Log.Category.GHOST_AI, "%s picked random direction: %d", type, nextDirection);
             }
         }
 
         if (nextDirection == -1 && lastDirection != -1 && canMove(currentRow, currentCol, oppositeDirection(lastDirection))) {
             nextDirection = oppositeDirection(lastDirection);
-            System.out.println(type + " fallback to opposite direction: " + nextDirection);
+            if (tracing) Log.debug(Log.Category.GHOST_AI, "%s fallback to opposite direction: %d", type, nextDirection);
         }
 
         // Fixed fallback to prevent getting stuck
         if (nextDirection == -1) {
             if (lastDirection != -1 && canMove(currentRow, currentCol, lastDirection)) {
                 nextDirection = lastDirection;
-                System.out.println(type + " fallback to last direction: " + nextDirection);
+                if (tracing) Log.debug(Log.Category.GHOST_AI, "%s fallback to last direction: %d", type, nextDirection);
             } else {
                 nextDirection = getRandomDirection(currentRow, currentCol);
-                System.out.println(type + " last fallback random direction: " + nextDirection);
+                if (tracing) Log.debug(Log.Category.GHOST_AI, "%s last fallback random direction: %d", type, nextDirection);
             }
         }
 
         if (nextDirection == -1) {
-            System.out.println(type + " no available moves, keeping speed");
+            if (tracing) Log.debug(Log.Category.GHOST_AI, "%s no available moves, keeping speed", type);
         } else {
             switch (nextDirection) {
                 case 0 -> { speedX = 0; speedY = -speed; }
@@ -205,20 +181,34 @@ public class Ghost {
         y += speedY;
     }
 
+    // Stays put for one tick while the scatter/chase timer keeps running
+    public void hold() {
+        prevX = x;
+        prevY = y;
+        advanceStateTimer();
+    }
+
+    private void advanceStateTimer() {
+        stateTicks++;
+        if (state == GhostState.SCATTER && stateTicks >= game.rules.scatterTicks) {
+            setState(GhostState.CHASE);
+        } else if (state == GhostState.CHASE && stateTicks >= game.rules.chaseTicks) {
+            setState(GhostState.SCATTER);
+        }
+    }
+
     private int clamp(int v, int min, int max) {
         return Math.max(min, Math.min(max, v));
     }
 
     public void setState(GhostState newState) {
         this.state = newState;
-        this.stateStartTime = System.currentTimeMillis();
+        this.stateTicks = 0;
     }
 
     private boolean canMove(int row, int col, int direction) {
-        int[] dr = {-1, 1, 0, 0};
-        int[] dc = {0, 0, -1, 1};
-        int nr = row + dr[direction];
-        int nc = col + dc[direction];
+        int nr = row + DR[direction];
+        int nc = col + DC[direction];
         return nr >= 0 && nr < game.ROWS && nc >= 0 && nc < game.COLS && game.map[nr][nc] == 0;
     }
 
@@ -233,27 +223,14 @@ public class Ghost {
     }
 
     private int getRandomDirection(int row, int col) {
-        List<Integer> possible = new ArrayList<>();
-        int[] dr = {-1, 1, 0, 0};
-        int[] dc = {0, 0, -1, 1};
+        int count = 0;
         for (int d = 0; d < 4; d++) {
-            int nr = row + dr[d];
-            int nc = col + dc[d];
-            if (nr >= 0 && nr < game.ROWS && nc >= 0 && nc < game.COLS && game.map[nr][nc] == 0) {
-                possible.add(d);
+            if (canMove(row, col, d)) {
+                possible[count++] = d;
             }
         }
-        if (possible.isEmpty()) return -1;
-        return possible.get(random.nextInt(possible.size()));
-    }
-
-    public void draw(GraphicsContext gc) {
-        if (ghostImage != null) {
-            gc.drawImage(ghostImage, x - size / 2, y - size / 2, size, size);
-        } else {
-            gc.setFill(state == GhostState.FRIGHTENED ? Color.DARKBLUE : color);
-            gc.fillOval(x - size / 2, y - size / 2, size, size);
-        }
+        if (count == 0) return -1;
+        return possible[random.nextInt(count)];
     }
 
     public boolean checkPacmanCollision(double pacX, double pacY) {
@@ -261,47 +238,22 @@ public class Ghost {
         double dy = y - pacY;
         double pacmanRadius = 11.0;
         double ghostRadius = size / 2.0;
-        return Math.sqrt(dx * dx + dy * dy) < (pacmanRadius + ghostRadius - 5);
+        double reach = pacmanRadius + ghostRadius - 5;
+        return dx * dx + dy * dy < reach * reach;
     }
 
-    private int bfsDirection() {
+    int bfsDirection() {
         int startRow = (int) (y / game.TILE_SIZE);
         int startCol = (int) (x / game.TILE_SIZE);
-
-        if (startRow == targetRow && startCol == targetCol) return -1;
-
-        boolean[][] visited = new boolean[game.ROWS][game.COLS];
-        int[][] firstMove = new int[game.ROWS][game.COLS];
-        for (int[] row : firstMove) Arrays.fill(row, -1);
-
-        Queue<int[]> queue = new LinkedList<>();
-        queue.add(new int[]{startRow, startCol});
-        visited[startRow][startCol] = true;
-
-        int[] dr = {-1, 1, 0, 0};
-        int[] dc = {0, 0, -1, 1};
-
-        while (!queue.isEmpty()) {
-            int[] current = queue.poll();
-            int r = current[0], c = current[1];
-            for (int d = 0; d < 4; d++) {
-                int nr = r + dr[d];
-                int nc = c + dc[d];
-
-                if (nr < 0 || nr >= game.ROWS || nc < 0 || nc >= game.COLS) continue;
-                if (visited[nr][nc] || game.map[nr][nc] != 0) continue;
-                visited[nr][nc] = true;
-                queue.add(new int[]{nr, nc});
-                firstMove[nr][nc] = (r == startRow && c == startCol) ? d : firstMove[r][c];
-
-                if (nr == targetRow && nc == targetCol) {
-                    return firstMove[nr][nc];
-                }
-            }
-        }
-        return -1;
+        return game.firstMove(startRow, startCol, targetRow, targetCol);
     }
 
     public double getX() { return x; }
     public double getY() { return y; }
+    // Center interpolated between the previous and current tick
+    public double getDrawX(double alpha) { return prevX + (x - prevX) * alpha; }
+    public double getDrawY(double alpha) { return prevY + (y - prevY) * alpha; }
+    public double getSize() { return size; }
+    public GhostType getType() { return type; }
+    public GhostState getState() { return state; }
 }
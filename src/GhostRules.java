@@ -0,0 +1,32 @@
+import java.util.Locale;
+
+// The tunable numbers behind the ghosts' targeting and scatter/chase timing.
+// DEFAULT is what the game plays with; BatchRunner builds variants to compare.
+public class GhostRules {
+
+    public static final GhostRules DEFAULT = new GhostRules(4, 2, 2, 8, 7, 20);
+
+    public final int pinkyLead;       // tiles Pinky aims ahead of Pac-Man
+    public final int inkyLead;        // tiles ahead of Pac-Man Inky's vector starts from
+    public final int inkyScale;       // how far Inky extends the Blinky-to-lead vector
+    public final int clydeRadius;     // Clyde chases only while farther than this (Manhattan tiles)
+    public final int scatterTicks;
+    public final int chaseTicks;
+
+    public GhostRules(int pinkyLead, int inkyLead, int inkyScale, int clydeRadius,
+                      double scatterSeconds, double chaseSeconds) {
+        this.pinkyLead = pinkyLead;
+        this.inkyLead = inkyLead;
+        this.inkyScale = inkyScale;
+        this.clydeRadius = clydeRadius;
+        this.scatterTicks = GameClock.secondsToTicks(scatterSeconds);
+        this.chaseTicks = GameClock.secondsToTicks(chaseSeconds);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "pinkyLead=%d inkyLead=%d inkyScale=%d clydeRadius=%d scatter=%.1fs chase=%.1fs",
+                pinkyLead, inkyLead, inkyScale, clydeRadius,
+                scatterTicks / (double) GameClock.TICKS_PER_SECOND, chaseTicks / (double) GameClock.TICKS_PER_SECOND);
+    }
+}
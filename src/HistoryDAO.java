@@ -0,0 +1,114 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pages through one player's game_results newest first, using the last
+// (played_at, id) of each page as the cursor for the next one instead of OFFSET.
+// Recently fetched pages are kept so reopening History does not query again.
+public class HistoryDAO {
+
+    public static final int PAGE_SIZE = 50;
+    private static final int CACHED_PAGES = 16;
+
+    // Both read idx_results_user_played in order from the cursor. username is
+    // fixed by the WHERE; it leads the ORDER BY so the planner matches the
+    // index from its first key and reads rows in index order
+    static final String FIRST_PAGE_SQL = "SELECT id, score, time_taken, played_at FROM game_results WHERE username = ? "
+            + "ORDER BY username, played_at DESC, id DESC LIMIT ?";
+    static final String NEXT_PAGE_SQL = "SELECT id, score, time_taken, played_at FROM game_results WHERE username = ? "
+            + "AND (played_at < ? OR (played_at = ? AND id < ?)) "
+            + "ORDER BY username, played_at DESC, id DESC LIMIT ?";
+
+    private static final Map<String, Page> cache = new LinkedHashMap<>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    public static class Page {
+        private final int index;
+        private final List<GameResult> rows;
+        private final boolean last;
+
+        public Page(int index, List<GameResult> rows, boolean last) {
+            this.index = index;
+            this.rows = Collections.unmodifiableList(rows);
+            this.last = last;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public List<GameResult> getRows() {
+            return rows;
+        }
+
+        // True when no older results exist after this page
+        public boolean isLast() {
+            return last;
+        }
+    }
+
+    // Returns page `index`, where `previous` is page index - 1 (or null for the first page)
+    public static Page getPage(String username, int index, Page previous) throws Exception {
+        String key = username + "#" + index;
+        synchronized (cache) {
+            Page cached = cache.get(key);
+            if (cached != null) return cached;
+        }
+
+        GameResult after = null;
+        if (previous != null && !previous.getRows().isEmpty()) {
+            after = previous.getRows().get(previous.getRows().size() - 1);
+        }
+        Page page = fetch(username, index, after);
+        synchronized (cache) {
+            cache.put(key, page);
+        }
+        return page;
+    }
+
+    private static Page fetch(String username, int index, GameResult after) throws Exception {
+        String sql = after == null ? FIRST_PAGE_SQL : NEXT_PAGE_SQL;
+
+        List<GameResult> rows = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            stmt.setString(i++, username);
+            if (after != null) {
+                stmt.setTimestamp(i++, after.getPlayedAtTimestamp());
+                stmt.setTimestamp(i++, after.getPlayedAtTimestamp());
+                stmt.setLong(i++, after.getId());
+            }
+            // One extra row tells us whether another page follows
+            stmt.setInt(i, PAGE_SIZE + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new GameResult(
+                            rs.getLong("id"),
+                            rs.getInt("score"),
+                            rs.getInt("time_taken"),
+                            rs.getTimestamp("played_at")
+                    ));
+                }
+            }
+        }
+        boolean last = rows.size() <= PAGE_SIZE;
+        if (!last) rows.remove(rows.size() - 1);
+        return new Page(index, rows, last);
+    }
+
+    // Drops a player's cached pages, e.g. after a new result was saved for them
+    public static void invalidate(String username) {
+        String prefix = username + "#";
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+}
@@ -1,8 +1,11 @@
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.image.Image;
@@ -11,14 +14,25 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
-public class HistoryScreen {
+public class HistoryScreen implements Navigator.Screen {
+
+    private final BorderPane root = new BorderPane();
+    private final TableView<GameResult> table = new TableView<>();
+    // Every row loaded since the screen was shown. GameResult is four small fields,
+    // so even thousands of games stay well under a megabyte; not windowed
+    private final ObservableList<GameResult> data = FXCollections.observableArrayList();
+    private final Label title = new Label();
+    private PageLoader pages;
+    private ScrollBar scrollBar;
 
     public static void show(Stage stage) {
-        TableView<GameResult> table = new TableView<>();
+        Navigator.show(stage, HistoryScreen.class, () -> new HistoryScreen(stage));
+    }
+
+    private HistoryScreen(Stage stage) {
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
         TableColumn<GameResult, Integer> scoreCol = new TableColumn<>("Score");
@@ -31,15 +45,12 @@ public class HistoryScreen {
         dateCol.setCellValueFactory(new PropertyValueFactory<>("playedAt"));
 
         table.getColumns().addAll(scoreCol, timeCol, dateCol);
-
-        ObservableList<GameResult> data = FXCollections.observableArrayList(getResultsForUser(Session.currentUser));
         table.setItems(data);
 
-        Label title = new Label("Game History - " + Session.currentUser);
         title.setStyle("-fx-font-size: 20px; -fx-text-fill: rgba(207,159,64,0.94); -fx-font-weight: bold;");
 
         // Load back icon
-        Image backIcon = new Image(HistoryScreen.class.getResourceAsStream("/icons/exit.png"), 16, 16, true, true);
+        Image backIcon = Icons.get("exit.png");
 
         Button backBtn = new Button("Back to Menu");
         backBtn.setGraphic(new ImageView(backIcon));
@@ -54,7 +65,6 @@ public class HistoryScreen {
         bottom.setAlignment(Pos.CENTER);
         bottom.setPadding(new Insets(20));
 
-        BorderPane root = new BorderPane();
         root.setTop(top);
         root.setCenter(table);
         root.setBottom(bottom);
@@ -64,55 +74,100 @@ public class HistoryScreen {
                         "-fx-border-color: rgba(207,159,64,0.94); " +
                         "-fx-border-width: 2px;"
         );
+        root.setPrefSize(500, 400);
+    }
+
+    @Override
+    public Parent getRoot() {
+        return root;
+    }
 
-        Scene scene = new Scene(root, 500, 400);
-        stage.setScene(scene);
-        stage.setTitle("Game History");
-        stage.show();
+    @Override
+    public String getTitle() {
+        return "Game History";
     }
 
-    private static List<GameResult> getResultsForUser(String username) {
-        List<GameResult> results = new ArrayList<>();
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement(
-                    "SELECT score, time_taken, played_at FROM game_results WHERE username = ? ORDER BY played_at DESC"
-            );
-            stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                results.add(new GameResult(
-                        rs.getInt("score"),
-                        rs.getInt("time_taken"),
-                        rs.getString("played_at")
-                ));
+    // Reloads from the first page for whoever is logged in now
+    @Override
+    public void onShow() {
+        title.setText("Game History - " + Session.currentUser);
+        data.clear();
+        table.setPlaceholder(new Label("Loading..."));
+        if (pages != null) pages.cancel();
+        pages = new PageLoader(Session.currentUser);
+        pages.loadNext();
+
+        if (scrollBar == null) {
+            // The scroll bar exists once the table has been laid out in the scene
+            root.applyCss();
+            root.layout();
+
+            // The table only creates cells for visible rows; fetch the next page as its scroll bar nears the end
+            for (Node node : table.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                    bar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                        if (nearEnd()) pages.loadNext();
+                    });
+                    scrollBar = bar;
+                }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-        return results;
     }
 
-    public static class GameResult {
-        private final int score;
-        private final int timeTaken;
-        private final String playedAt;
+    // True while the rows do not fill the table, or it is scrolled to near the last row
+    private boolean nearEnd() {
+        if (scrollBar == null || !scrollBar.isVisible()) return true;
+        return scrollBar.getValue() >= scrollBar.getMax() * 0.9;
+    }
 
-        public GameResult(int score, int timeTaken, String playedAt) {
-            this.score = score;
-            this.timeTaken = timeTaken;
-            this.playedAt = playedAt;
-        }
+    @Override
+    public void onHide() {
+        if (pages != null) pages.cancel();
+    }
+
+    // Pages are queried off the FX thread through AsyncDAO, one at a time
+    private class PageLoader {
+        private final String username;
+        private HistoryDAO.Page lastPage;
+        private CompletableFuture<HistoryDAO.Page> loading;
 
-        public int getScore() {
-            return score;
+        PageLoader(String username) {
+            this.username = username;
         }
 
-        public int getTimeTaken() {
-            return timeTaken;
+        // Called on the FX thread; ignored while a page is in flight or after the last one.
+        // A page that arrives after the screen was shown again is dropped
+        void loadNext() {
+            if (loading != null || (lastPage != null && lastPage.isLast())) return;
+            HistoryDAO.Page previous = lastPage;
+            int index = previous == null ? 0 : previous.getIndex() + 1;
+            CompletableFuture<HistoryDAO.Page> request = AsyncDAO.historyPage(username, index, previous);
+            loading = request;
+            request.whenCompleteAsync((page, error) -> {
+                if (loading != request) return;
+                loading = null;
+                if (pages != this) return;
+                if (error != null) {
+                    Log.warn(Log.Category.DB, "Could not load history page %d: %s", index, error.toString());
+                    table.setPlaceholder(new Label(error instanceof TimeoutException
+                            ? "The database is not responding." : "Could not load history."));
+                    return;
+                }
+                lastPage = page;
+                data.addAll(page.getRows());
+                if (data.isEmpty()) table.setPlaceholder(new Label("No games played yet."));
+                // The scroll bar only moves once there is something to scroll, so keep
+                // fetching until the rows fill the view or the history runs out
+                table.layout();
+                if (nearEnd()) loadNext();
+            }, Platform::runLater);
         }
 
-        public String getPlayedAt() {
-            return playedAt;
+        void cancel() {
+            if (loading != null) {
+                loading.cancel(true);
+                loading = null;
+            }
         }
     }
 }
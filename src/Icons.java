@@ -0,0 +1,35 @@
+import javafx.scene.image.Image;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 16x16 button icons from /icons, decoded once and shared by every screen.
+// Images load in the background, so building a screen never waits on PNG
+// decoding; a button shows its icon as soon as it is ready.
+public class Icons {
+
+    private static final int SIZE = 16;
+    private static final String[] ALL = {"login.png", "exit.png", "replay.png"};
+
+    private static final Map<String, Image> cache = new ConcurrentHashMap<>();
+
+    // The icon, or null if it is missing
+    public static Image get(String name) {
+        return cache.computeIfAbsent(name, Icons::load);
+    }
+
+    // Starts decoding every icon, for Startup to call before the screens need them
+    public static void preload() {
+        for (String name : ALL) get(name);
+    }
+
+    private static Image load(String name) {
+        URL url = Icons.class.getResource("/icons/" + name);
+        if (url == null) {
+            Log.warn(Log.Category.ASSETS, "Icon %s not found on the classpath", name);
+            return null;
+        }
+        return new Image(url.toExternalForm(), SIZE, SIZE, true, true, true);
+    }
+}
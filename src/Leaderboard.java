@@ -0,0 +1,192 @@
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Global and per-level top-K boards (best score, fastest clear) kept in memory.
+// load() fills them once at startup; record() updates them as games finish,
+// so readers such as LevelSelectionScreen never touch the database.
+public class Leaderboard {
+
+    public static final int TOP_K = 10;
+    public static final int GLOBAL = -1;
+
+    // One query per board, each read in order from its own index (see V3__query_indexes.sql).
+    // Columns fixed by the WHERE lead the ORDER BY so it matches the index from its first key
+    private static final String COLUMNS = "SELECT username, score, time_taken, level, cleared, played_at FROM game_results ";
+    static final String BEST_SCORES_SQL = COLUMNS + "ORDER BY score DESC, time_taken ASC LIMIT ?";
+    static final String FASTEST_CLEARS_SQL = COLUMNS
+            + "WHERE cleared = TRUE ORDER BY cleared, time_taken ASC, score DESC LIMIT ?";
+    static final String LEVEL_BEST_SCORES_SQL = COLUMNS
+            + "WHERE level = ? ORDER BY level, score DESC, time_taken ASC LIMIT ?";
+    static final String LEVEL_FASTEST_CLEARS_SQL = COLUMNS
+            + "WHERE level = ? AND cleared = TRUE ORDER BY level, cleared, time_taken ASC, score DESC LIMIT ?";
+
+    private static final Comparator<Entry> BY_SCORE = Comparator
+            .comparingInt(Entry::getScore).reversed()
+            .thenComparingInt(Entry::getTimeTaken)
+            .thenComparing(Entry::getPlayedAt);
+    private static final Comparator<Entry> BY_TIME = Comparator
+            .comparingInt(Entry::getTimeTaken)
+            .thenComparing(BY_SCORE);
+
+    private static Map<Integer, TopK> bestScores = new HashMap<>();
+    private static Map<Integer, TopK> fastestClears = new HashMap<>();
+    // Results recorded while load() is running, re-applied on top of what it read
+    private static List<Entry> recordedDuringLoad;
+
+    public static class Entry {
+        private final String username;
+        private final int score;
+        private final int timeTaken;
+        private final int level;
+        private final boolean cleared;
+        private final LocalDateTime playedAt;
+
+        public Entry(String username, int score, int timeTaken, int level, boolean cleared, LocalDateTime playedAt) {
+            this.username = username;
+            this.score = score;
+            this.timeTaken = timeTaken;
+            this.level = level;
+            this.cleared = cleared;
+            this.playedAt = playedAt;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getTimeTaken() {
+            return timeTaken;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public boolean isCleared() {
+            return cleared;
+        }
+
+        public LocalDateTime getPlayedAt() {
+            return playedAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry other)) return false;
+            return score == other.score && timeTaken == other.timeTaken && level == other.level
+                    && username.equals(other.username) && playedAt.equals(other.playedAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(username, score, timeTaken, level, playedAt);
+        }
+    }
+
+    // Bounded sorted array; offer() is an O(K) insertion
+    private static class TopK {
+        private final Comparator<Entry> order;
+        private final Entry[] entries = new Entry[TOP_K];
+        private int size;
+
+        TopK(Comparator<Entry> order) {
+            this.order = order;
+        }
+
+        void offer(Entry e) {
+            if (size == TOP_K && order.compare(e, entries[size - 1]) >= 0) return;
+            for (int i = 0; i < size; i++) {
+                if (entries[i].equals(e)) return;
+            }
+            int pos = size < TOP_K ? size++ : size - 1;
+            while (pos > 0 && order.compare(e, entries[pos - 1]) < 0) {
+                entries[pos] = entries[pos - 1];
+                pos--;
+            }
+            entries[pos] = e;
+        }
+
+        List<Entry> snapshot() {
+            return List.of(Arrays.copyOf(entries, size));
+        }
+    }
+
+    public static synchronized void record(Entry e) {
+        if (recordedDuringLoad != null) recordedDuringLoad.add(e);
+        apply(bestScores, fastestClears, e);
+    }
+
+    private static void apply(Map<Integer, TopK> scores, Map<Integer, TopK> clears, Entry e) {
+        scores.computeIfAbsent(GLOBAL, k -> new TopK(BY_SCORE)).offer(e);
+        if (e.getLevel() != GLOBAL) scores.computeIfAbsent(e.getLevel(), k -> new TopK(BY_SCORE)).offer(e);
+        if (e.isCleared()) {
+            clears.computeIfAbsent(GLOBAL, k -> new TopK(BY_TIME)).offer(e);
+            if (e.getLevel() != GLOBAL) clears.computeIfAbsent(e.getLevel(), k -> new TopK(BY_TIME)).offer(e);
+        }
+    }
+
+    // Best scores for a level, or for all levels with GLOBAL
+    public static synchronized List<Entry> topScores(int level) {
+        TopK board = bestScores.get(level);
+        return board == null ? List.of() : board.snapshot();
+    }
+
+    // Quickest full clears for a level, or for all levels with GLOBAL
+    public static synchronized List<Entry> fastestClears(int level) {
+        TopK board = fastestClears.get(level);
+        return board == null ? List.of() : board.snapshot();
+    }
+
+    // Reads each board's top K rows once; meant to run off the FX thread at startup
+    public static void load() {
+        synchronized (Leaderboard.class) {
+            recordedDuringLoad = new ArrayList<>();
+        }
+        Map<Integer, TopK> scores = new HashMap<>();
+        Map<Integer, TopK> clears = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            read(conn, BEST_SCORES_SQL, null, scores, clears);
+            read(conn, FASTEST_CLEARS_SQL, null, scores, clears);
+            for (int level = 0; level < Levels.count(); level++) {
+                read(conn, LEVEL_BEST_SCORES_SQL, level, scores, clears);
+                read(conn, LEVEL_FASTEST_CLEARS_SQL, level, scores, clears);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        synchronized (Leaderboard.class) {
+            for (Entry e : recordedDuringLoad) apply(scores, clears, e);
+            recordedDuringLoad = null;
+            bestScores = scores;
+            fastestClears = clears;
+        }
+    }
+
+    private static void read(Connection conn, String sql, Integer level,
+                             Map<Integer, TopK> scores, Map<Integer, TopK> clears) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (level != null) stmt.setInt(i++, level);
+            stmt.setInt(i, TOP_K);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int rowLevel = rs.getInt("level");
+                    if (rs.wasNull()) rowLevel = GLOBAL;
+                    apply(scores, clears, new Entry(
+                            rs.getString("username"),
+                            rs.getInt("score"),
+                            rs.getInt("time_taken"),
+                            rowLevel,
+                            rs.getBoolean("cleared"),
+                            rs.getTimestamp("played_at").toLocalDateTime()
+                    ));
+                }
+            }
+        }
+    }
+}
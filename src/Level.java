@@ -0,0 +1,108 @@
+// One maze with its spawn points and ghost scatter corners, as stored in a
+// level pack. Levels are shared by every game that plays them, so the tile
+// grid must not be modified. The routing table is built on first use and then
+// shared as well; flow fields are a mutable cache, so each thread gets its own.
+public class Level {
+
+    private final String name;
+    private final int[][] map;
+    private final int pacmanRow, pacmanCol;
+    private final Ghost.GhostType[] ghostTypes;
+    private final int[] ghostRows, ghostCols;
+    private final int[] scatterRows, scatterCols;
+    private final int pelletCount;
+    private RoutingTable routes;
+    private final ThreadLocal<FlowFields> flowFields;
+
+    public Level(String name, int[][] map, int pacmanRow, int pacmanCol, Ghost.GhostType[] ghostTypes,
+                 int[] ghostRows, int[] ghostCols, int[] scatterRows, int[] scatterCols, int pelletCount) {
+        this.name = name;
+        this.map = map;
+        this.pacmanRow = pacmanRow;
+        this.pacmanCol = pacmanCol;
+        this.ghostTypes = ghostTypes;
+        this.ghostRows = ghostRows;
+        this.ghostCols = ghostCols;
+        this.scatterRows = scatterRows;
+        this.scatterCols = scatterCols;
+        this.pelletCount = pelletCount;
+        this.flowFields = ThreadLocal.withInitial(() -> new FlowFields(map));
+    }
+
+    // A maze with the spawn points the original levels used: Pac-Man top left,
+    // the ghosts in the middle column and each ghost scattering to its own corner
+    public static Level withDefaultSpawns(String name, int[][] map) {
+        int rows = map.length, cols = map[0].length;
+        return new Level(name, map, 1, 1,
+                new Ghost.GhostType[]{Ghost.GhostType.BLINKY, Ghost.GhostType.PINKY, Ghost.GhostType.INKY, Ghost.GhostType.CLYDE},
+                new int[]{9, 9, 11, 13},
+                new int[]{9, 9, 9, 9},
+                new int[]{0, 0, rows - 1, rows - 1},
+                new int[]{cols - 1, 0, cols - 1, 0},
+                new PelletGrid(map).remaining());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // The shared tile grid: 0 corridor with a pellet, 1 wall, 2 ghost house
+    public int[][] getMap() {
+        return map;
+    }
+
+    public int getRows() {
+        return map.length;
+    }
+
+    public int getCols() {
+        return map[0].length;
+    }
+
+    public int getPacmanRow() {
+        return pacmanRow;
+    }
+
+    public int getPacmanCol() {
+        return pacmanCol;
+    }
+
+    public int getGhostCount() {
+        return ghostTypes.length;
+    }
+
+    public Ghost.GhostType getGhostType(int i) {
+        return ghostTypes[i];
+    }
+
+    public int getGhostRow(int i) {
+        return ghostRows[i];
+    }
+
+    public int getGhostCol(int i) {
+        return ghostCols[i];
+    }
+
+    public int getScatterRow(int i) {
+        return scatterRows[i];
+    }
+
+    public int getScatterCol(int i) {
+        return scatterCols[i];
+    }
+
+    public int getPelletCount() {
+        return pelletCount;
+    }
+
+    // The maze's routing table, or null if it is too large for one (route with getFlowFields())
+    public synchronized RoutingTable getRoutes() {
+        if (routes == null && RoutingTable.fits(map)) routes = new RoutingTable(map);
+        return routes;
+    }
+
+    // The calling thread's flow fields for this maze, kept across the games it plays
+    public FlowFields getFlowFields() {
+        return flowFields.get();
+    }
+}
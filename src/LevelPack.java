@@ -0,0 +1,325 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// A file of levels. The file is memory-mapped and only its index is read up
+// front; a level is parsed the first time it is asked for and then kept, so
+// every Game (and Play Again) reuses the same Level.
+//
+// Layout (big-endian):
+//   "PMLV" magic, u8 version, u16 level count
+//   per level: u32 offset, u32 length
+//   level record:
+//     u16 name length, UTF-8 name
+//     u16 rows, u16 cols
+//     tiles, 2 bits each, row-major, packed four per byte from the high bits
+//     u16 Pac-Man row, u16 Pac-Man col
+//     u8 ghost count; per ghost: u8 type, u16 row, u16 col, u16 scatter row, u16 scatter col
+//     u8 metadata count; per entry: u8 tag, u16 length, bytes (unknown tags are skipped)
+//
+// Usage: LevelPack <out-file> [ROWSxCOLS:seed ...]
+//   writes the built-in levels, followed by any generated mazes listed
+public class LevelPack {
+
+    private static final byte[] MAGIC = {'P', 'M', 'L', 'V'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 7;
+    private static final int TAG_PELLET_COUNT = 1;
+
+    private static LevelPack shared;
+
+    private final String source;
+    private final ByteBuffer data;
+    private final int count;
+    private final Level[] parsed;
+    private final long[] hashes;
+
+    private LevelPack(String source, ByteBuffer data) throws IOException {
+        this.source = source;
+        this.data = data;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data.get(i) != MAGIC[i]) throw new IOException(source + " is not a level pack");
+        }
+        int version = data.get(4) & 0xFF;
+        if (version != VERSION) throw new IOException(source + ": unsupported level pack version " + version);
+        this.count = data.getShort(5) & 0xFFFF;
+        if (count == 0 || HEADER_SIZE + count * 8L > data.limit()) {
+            throw new IOException(source + ": bad level count " + count);
+        }
+        this.parsed = new Level[count];
+        this.hashes = new long[count];
+        Arrays.fill(hashes, -1);
+    }
+
+    // Maps a pack file; its pages are read by the OS as levels are parsed
+    public static LevelPack open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new LevelPack(file.toString(), channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static LevelPack of(String source, byte[] bytes) throws IOException {
+        return new LevelPack(source, ByteBuffer.wrap(bytes));
+    }
+
+    // The process-wide pack: -Dpacman.levels, then ./levels.pack, then src/levels.pack,
+    // then a levels.pack on the classpath. Without any, the built-in levels are used.
+    public static synchronized LevelPack shared() {
+        if (shared == null) shared = load();
+        return shared;
+    }
+
+    private static LevelPack load() {
+        String configured = System.getProperty("pacman.levels");
+        List<Path> candidates = new ArrayList<>();
+        if (configured != null) candidates.add(Paths.get(configured));
+        candidates.add(Paths.get("levels.pack"));
+        candidates.add(Paths.get("src", "levels.pack"));
+        for (Path file : candidates) {
+            if (!Files.isRegularFile(file)) continue;
+            try {
+                LevelPack pack = open(file);
+                Log.info(Log.Category.ASSETS, "Loaded %d level(s) from %s", pack.count(), file);
+                return pack;
+            } catch (IOException e) {
+                Log.warn(Log.Category.ASSETS, "Could not read level pack %s: %s", file, e.getMessage());
+            }
+        }
+        try (InputStream in = LevelPack.class.getResourceAsStream("/levels.pack")) {
+            if (in != null) return of("classpath:/levels.pack", in.readAllBytes());
+        } catch (IOException e) {
+            Log.warn(Log.Category.ASSETS, "Could not read level pack from classpath: %s", e.getMessage());
+        }
+        Log.warn(Log.Category.ASSETS, "No level pack found, using the built-in levels");
+        try {
+            return of("built-in", write(Levels.builtIn()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not build the built-in level pack", e);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public synchronized Level get(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Level " + index + " of " + count);
+        if (parsed[index] == null) {
+            try {
+                parsed[index] = parse(slice(index));
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException(source + ": level " + (index + 1) + " is corrupt (" + e.getMessage() + ")", e);
+            }
+        }
+        return parsed[index];
+    }
+
+    // The name, rows and cols below read only the start of the record, so a
+    // level can be listed without parsing its maze
+    public String getName(int index) {
+        ByteBuffer in = header(index);
+        byte[] nameBytes = new byte[in.getShort(0) & 0xFFFF];
+        in.get(2, nameBytes);
+        return new String(nameBytes, StandardCharsets.UTF_8);
+    }
+
+    public int getRows(int index) {
+        ByteBuffer in = header(index);
+        return in.getShort(2 + (in.getShort(0) & 0xFFFF)) & 0xFFFF;
+    }
+
+    public int getCols(int index) {
+        ByteBuffer in = header(index);
+        return in.getShort(4 + (in.getShort(0) & 0xFFFF)) & 0xFFFF;
+    }
+
+    // CRC-32 of the level's record: any change to the maze, spawns or metadata changes it.
+    // Replays store it so one recorded on a different pack is refused instead of diverging
+    public synchronized long hash(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Level " + index + " of " + count);
+        if (hashes[index] < 0) {
+            CRC32 crc = new CRC32();
+            crc.update(header(index));
+            hashes[index] = crc.getValue();
+        }
+        return hashes[index];
+    }
+
+    // The level's record, checked to be long enough for its name, rows and cols
+    private ByteBuffer header(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Level " + index + " of " + count);
+        try {
+            ByteBuffer record = slice(index);
+            if (record.limit() < 6 || record.limit() < 6 + (record.getShort(0) & 0xFFFF)) {
+                throw new IOException("record too short");
+            }
+            return record;
+        } catch (IOException e) {
+            throw new IllegalStateException(source + ": level " + (index + 1) + " is corrupt (" + e.getMessage() + ")", e);
+        }
+    }
+
+    private ByteBuffer slice(int index) throws IOException {
+        int offset = data.getInt(HEADER_SIZE + index * 8);
+        int length = data.getInt(HEADER_SIZE + index * 8 + 4);
+        if (offset < 0 || length < 0 || offset > data.limit() - length) {
+            throw new IOException("record out of bounds");
+        }
+        return data.slice(offset, length);
+    }
+
+    private static Level parse(ByteBuffer in) throws IOException {
+        byte[] nameBytes = new byte[in.getShort() & 0xFFFF];
+        in.get(nameBytes);
+        String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+        int rows = in.getShort() & 0xFFFF;
+        int cols = in.getShort() & 0xFFFF;
+        if (rows == 0 || cols == 0) throw new IOException("empty maze");
+        int[][] map = new int[rows][cols];
+        int tileBytesStart = in.position();
+        for (int i = 0; i < rows * cols; i++) {
+            int packed = in.get(tileBytesStart + i / 4) & 0xFF;
+            map[i / cols][i % cols] = (packed >>> (6 - 2 * (i % 4))) & 3;
+        }
+        in.position(tileBytesStart + (rows * cols + 3) / 4);
+
+        int pacmanRow = in.getShort() & 0xFFFF;
+        int pacmanCol = in.getShort() & 0xFFFF;
+        checkOpen(map, pacmanRow, pacmanCol, "Pac-Man spawn");
+
+        int ghosts = in.get() & 0xFF;
+        Ghost.GhostType[] types = new Ghost.GhostType[ghosts];
+        int[] ghostRows = new int[ghosts], ghostCols = new int[ghosts];
+        int[] scatterRows = new int[ghosts], scatterCols = new int[ghosts];
+        Ghost.GhostType[] allTypes = Ghost.GhostType.values();
+        for (int g = 0; g < ghosts; g++) {
+            int type = in.get() & 0xFF;
+            if (type >= allTypes.length) throw new IOException("unknown ghost type " + type);
+            types[g] = allTypes[type];
+            ghostRows[g] = in.getShort() & 0xFFFF;
+            ghostCols[g] = in.getShort() & 0xFFFF;
+            scatterRows[g] = in.getShort() & 0xFFFF;
+            scatterCols[g] = in.getShort() & 0xFFFF;
+            if (ghostRows[g] >= rows || ghostCols[g] >= cols || scatterRows[g] >= rows || scatterCols[g] >= cols) {
+                throw new IOException(types[g] + " spawn or scatter corner outside the maze");
+            }
+        }
+
+        int pelletCount = -1;
+        int entries = in.get() & 0xFF;
+        for (int e = 0; e < entries; e++) {
+            int tag = in.get() & 0xFF;
+            int length = in.getShort() & 0xFFFF;
+            if (tag == TAG_PELLET_COUNT && length == 4) {
+                pelletCount = in.getInt();
+            } else {
+                in.position(in.position() + length);
+            }
+        }
+        if (pelletCount < 0) pelletCount = new PelletGrid(map).remaining();
+
+        return new Level(name, map, pacmanRow, pacmanCol, types, ghostRows, ghostCols, scatterRows, scatterCols, pelletCount);
+    }
+
+    private static void checkOpen(int[][] map, int row, int col, String what) throws IOException {
+        if (row >= map.length || col >= map[0].length || map[row][col] == 1) {
+            throw new IOException(what + " (" + row + "," + col + ") is not an open tile");
+        }
+    }
+
+    public static byte[] write(List<Level> levels) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        for (Level level : levels) records.add(record(level));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeShort(levels.size());
+        int offset = HEADER_SIZE + levels.size() * 8;
+        for (byte[] record : records) {
+            out.writeInt(offset);
+            out.writeInt(record.length);
+            offset += record.length;
+        }
+        for (byte[] record : records) out.write(record);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] record(Level level) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        byte[] name = level.getName().getBytes(StandardCharsets.UTF_8);
+        out.writeShort(name.length);
+        out.write(name);
+
+        int rows = level.getRows(), cols = level.getCols();
+        out.writeShort(rows);
+        out.writeShort(cols);
+        int[][] map = level.getMap();
+        int packed = 0;
+        for (int i = 0; i < rows * cols; i++) {
+            packed |= (map[i / cols][i % cols] & 3) << (6 - 2 * (i % 4));
+            if (i % 4 == 3) {
+                out.writeByte(packed);
+                packed = 0;
+            }
+        }
+        if ((rows * cols) % 4 != 0) out.writeByte(packed);
+
+        out.writeShort(level.getPacmanRow());
+        out.writeShort(level.getPacmanCol());
+        out.writeByte(level.getGhostCount());
+        for (int g = 0; g < level.getGhostCount(); g++) {
+            out.writeByte(level.getGhostType(g).ordinal());
+            out.writeShort(level.getGhostRow(g));
+            out.writeShort(level.getGhostCol(g));
+            out.writeShort(level.getScatterRow(g));
+            out.writeShort(level.getScatterCol(g));
+        }
+
+        out.writeByte(1);
+        out.writeByte(TAG_PELLET_COUNT);
+        out.writeShort(4);
+        out.writeInt(level.getPelletCount());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: LevelPack <out-file> [ROWSxCOLS:seed ...]");
+            System.exit(2);
+        }
+        List<Level> levels = new ArrayList<>(Levels.builtIn());
+        for (int i = 1; i < args.length; i++) {
+            String[] spec = args[i].split("[x:]");
+            int rows = Integer.parseInt(spec[0]);
+            int cols = Integer.parseInt(spec[1]);
+            long seed = Long.parseLong(spec[2]);
+            levels.add(Level.withDefaultSpawns("Generated " + rows + "x" + cols,
+                    MazeGenerator.generate(rows, cols, seed)));
+        }
+        Path out = Paths.get(args[0]);
+        Files.write(out, write(levels));
+        System.out.println("Wrote " + levels.size() + " level(s) to " + out + " (" + Files.size(out) + " bytes)");
+    }
+}
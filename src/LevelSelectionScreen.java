@@ -1,46 +1,106 @@
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
-public class LevelSelectionScreen {
+import java.util.ArrayList;
+import java.util.List;
+
+public class LevelSelectionScreen implements Navigator.Screen {
+
+    // Ghost-count choices; 0 plays each level with its own ghosts
+    private static final int[] GHOST_COUNTS = {0, 16, 64, 256};
+
+    private final VBox root;
+    private final List<Label> bestLabels = new ArrayList<>();
+    private int ghostCount = 0; // last choice, kept while the app runs
 
     public static void show(Stage stage) {
+        Navigator.show(stage, LevelSelectionScreen.class, () -> new LevelSelectionScreen(stage));
+    }
+
+    private LevelSelectionScreen(Stage stage) {
         Label title = new Label("Select Level");
         title.setStyle("-fx-font-size:24px;-fx-text-fill:#CF9F40;-fx-font-weight:bold;");
 
-        Button level1Btn = new Button("Level 1");
-        Button level2Btn = new Button("Level 2");
-        Button level3Btn = new Button("Level 3");
-        Button backBtn = new Button("Back");
+        Label ghostsLabel = new Label("Ghosts:");
+        ghostsLabel.setStyle("-fx-text-fill:white;-fx-font-size:14px;");
+        ChoiceBox<String> ghostsChoice = new ChoiceBox<>();
+        for (int count : GHOST_COUNTS) ghostsChoice.getItems().add(count == 0 ? "Classic" : String.valueOf(count));
+        ghostsChoice.getSelectionModel().select(0);
+        ghostsChoice.setOnAction(e -> ghostCount = GHOST_COUNTS[ghostsChoice.getSelectionModel().getSelectedIndex()]);
+        HBox ghostsRow = new HBox(8, ghostsLabel, ghostsChoice);
+        ghostsRow.setAlignment(Pos.CENTER);
 
-        level1Btn.setPrefWidth(200);
-        level2Btn.setPrefWidth(200);
-        level3Btn.setPrefWidth(200);
-        backBtn.setPrefWidth(200);
+        // One button per level in the pack; labels come from the record headers, so
+        // a level is only parsed once it is played
+        VBox levels = new VBox(8);
+        levels.setAlignment(Pos.CENTER);
+        levels.setStyle("-fx-background-color:#282c34;");
+        LevelPack pack = LevelPack.shared();
+        for (int i = 0; i < pack.count(); i++) {
+            int index = i;
+            Button levelBtn = new Button(pack.getName(i) + "  (" + pack.getCols(i) + "x" + pack.getRows(i) + ")");
+            levelBtn.setPrefWidth(200);
+            levelBtn.setStyle("-fx-background-color:#384098; -fx-text-fill:white; -fx-font-size:16px;");
+            levelBtn.setOnAction(e -> new Game(index, ghostCount).show(stage));
+            Label best = new Label();
+            best.setStyle("-fx-text-fill:#CF9F40;-fx-font-size:12px;");
+            bestLabels.add(best);
+            levels.getChildren().addAll(levelBtn, best);
+        }
 
-        level1Btn.setStyle("-fx-background-color:#384098; -fx-text-fill:white; -fx-font-size:16px;");
-        level2Btn.setStyle("-fx-background-color:#384098; -fx-text-fill:white; -fx-font-size:16px;");
-        level3Btn.setStyle("-fx-background-color:#384098; -fx-text-fill:white; -fx-font-size:16px;");
-        backBtn.setStyle("-fx-background-color:#d9534f; -fx-text-fill:white; -fx-font-size:16px;");
+        ScrollPane scroll = new ScrollPane(levels);
+        scroll.setFitToWidth(true);
+        scroll.setStyle("-fx-background:#282c34; -fx-background-color:#282c34;");
+        VBox.setVgrow(scroll, Priority.ALWAYS);
 
-        level1Btn.setOnAction(e -> new Game(0).show(stage));
-        level2Btn.setOnAction(e -> new Game(1).show(stage));
-        level3Btn.setOnAction(e -> new Game(2).show(stage));
+        Button backBtn = new Button("Back");
+        backBtn.setPrefWidth(200);
+        backBtn.setStyle("-fx-background-color:#d9534f; -fx-text-fill:white; -fx-font-size:16px;");
         backBtn.setOnAction(e -> MenuScreen.show(stage));
 
-        VBox root = new VBox(20, title, level1Btn, level2Btn, level3Btn, backBtn);
+        root = new VBox(8, title, ghostsRow, scroll, backBtn);
         root.setAlignment(Pos.CENTER);
         root.setPadding(new Insets(30));
         root.setStyle("-fx-background-color:#282c34;");
+        root.setPrefSize(400, 400);
+    }
 
-        Scene scene = new Scene(root, 400, 300);
-        stage.setScene(scene);
-        stage.setTitle("Select Level");
-        stage.show();
+    @Override
+    public Parent getRoot() {
+        return root;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Select Level";
     }
-}
 
+    // Best scores change as games finish
+    @Override
+    public void onShow() {
+        for (int i = 0; i < bestLabels.size(); i++) {
+            bestLabels.get(i).setText(bestText(i));
+        }
+    }
+
+    // Reads the in-memory leaderboard, so showing the screen costs no database round trip
+    private static String bestText(int level) {
+        List<Leaderboard.Entry> top = Leaderboard.topScores(level);
+        List<Leaderboard.Entry> fastest = Leaderboard.fastestClears(level);
+        String text = top.isEmpty() ? "No scores yet"
+                : "Best: " + top.get(0).getScore() + " (" + top.get(0).getUsername() + ")";
+        if (!fastest.isEmpty()) {
+            text += "   Fastest clear: " + fastest.get(0).getTimeTaken() + "s (" + fastest.get(0).getUsername() + ")";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// The levels the game offers, read from the shared LevelPack. The three
+// original mazes below are what the default pack is built from, and what
+// is played when no pack file can be found.
+// Tiles: 0 = corridor with a pellet, 1 = wall, 2 = ghost house
+public class Levels {
+
+    public static List<Level> builtIn() {
+        List<int[][]> maps = builtInMaps();
+        List<Level> levels = new ArrayList<>();
+        for (int i = 0; i < maps.size(); i++) {
+            levels.add(Level.withDefaultSpawns("Level " + (i + 1), maps.get(i)));
+        }
+        return levels;
+    }
+
+    private static List<int[][]> builtInMaps() {
+        // Level 1 - your current map
+        int[][] level1 = {
+                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
+                {1,0,0,0,1,0,0,0,1,0,1,0,0,0,1,0,0,0,1},
+                {1,0,1,0,1,0,1,0,1,0,1,0,1,0,1,0,1,0,1},
+                {1,0,1,0,0,0,1,0,0,0,0,0,1,0,0,0,1,0,1},
+                {1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1},
+                {1,0,0,0,1,0,0,0,0,0,0,0,0,0,1,0,0,0,1},
+                {1,1,1,0,1,0,1,1,2,2,2,2,1,1,1,0,1,1,1},
+                {1,1,0,0,0,0,1,2,2,2,2,2,2,1,0,0,0,1,1},
+                {1,1,1,0,1,0,1,2,2,2,2,2,2,1,0,1,1,1,1},
+                {1,0,0,0,1,0,0,0,0,2,2,0,0,0,0,0,0,0,1},
+                {1,0,1,1,1,1,1,1,0,0,0,0,1,1,1,1,1,0,1},
+                {1,0,0,0,1,0,0,0,1,1,1,0,0,0,1,0,0,0,1},
+                {1,1,1,0,1,0,1,0,1,0,1,0,1,0,1,0,1,1,1},
+                {1,0,0,0,0,0,1,0,0,0,0,0,1,0,0,0,0,0,1},
+                {1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1},
+                {1,0,0,0,1,0,0,0,0,0,0,0,0,0,1,0,0,0,1},
+                {1,1,1,0,1,0,1,1,1,1,1,1,1,0,1,0,1,1,1},
+                {1,0,0,0,0,0,1,0,0,0,0,0,1,0,0,0,0,0,1},
+                {1,0,1,1,1,1,1,0,1,1,1,0,1,1,1,1,1,0,1},
+                {1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
+                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
+        };
+
+        // Level 2 - slightly different maze
+        int[][] level2 = {
+                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
+                {1,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,0,1},
+                {1,0,1,1,1,1,0,1,0,1,0,1,0,1,1,1,1,0,1},
+                {1,0,0,0,1,0,0,0,0,1,0,0,0,0,1,0,0,0,1},
+                {1,1,1,0,1,0,1,1,1,0,1,1,1,0,1,0,1,1,1},
+                {1,0,0,0,1,0,0,0,0,0,0,0,0,0,1,0,0,0,1},
+                {1,0,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,0,1},
+                {1,0,1,0,0,0,1,0,0,0,0,0,1,0,0,0,1,0,1},
+                {1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1},
+                {1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
+                {1,0,1,1,1,1,1,0,1,0,0,0,1,0,1,1,1,1,1},
+                {1,0,0,0,0,0,1,0,1,1,1,1,1,0,0,0,0,0,1},
+                {1,1,1,0,1,0,1,0,0,0,0,0,1,0,1,0,1,1,1},
+                {1,0,0,0,1,0,0,0,1,1,1,0,0,0,1,0,0,0,1},
+                {1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1},
+                {1,0,0,0,1,0,0,0,0,0,0,0,0,0,1,0,0,0,1},
+                {1,1,1,0,1,1,1,0,1,1,1,1,1,0,1,1,1,0,1},
+                {1,0,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,1},
+                {1,0,1,1,1,1,1,0,1,0,0,0,1,0,1,1,1,1,1},
+                {1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
+                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
+        };
+
+        // Level 3 - more open style maze
+        int[][] level3 = {
+                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1},
+                {1,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,0,1},
+                {1,0,1,1,1,1,0,1,0,1,0,1,0,1,1,1,1,0,1},
+                {1,0,0,0,0,1,0,0,0,1,0,0,0,1,0,0,0,0,1},
+                {1,1,1,1,0,1,1,1,0,1,0,1,1,1,0,1,1,1,1},
+                {1,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,0,1},
+                {1,0,1,1,1,1,0,1,1,1,1,1,0,1,1,1,1,0,1},
+                {1,0,1,0,0,0,0,0,0,0,0,0,0,0,0,0,1,0,1},
+                {1,0,1,0,1,1,1,0,1,1,1,0,1,1,1,0,1,0,1},
+                {1,0,0,0,0,0,1,0,0,0,0,0,1,0,0,0,0,0,1},
+                {1,1,1,0,1,0,1,1,1,0,1,1,1,0,1,0,1,1,1},
+                {1,0,0,0,1,0,0,0,1,0,0,0,1,0,0,0,0,0,1},
+                {1,0,1,1,1,1,1,0,1,0,1,0,1,0,1,1,1,0,1},
+                {1,0,0,0,0,0,0,0,1,0,1,0,0,0,0,0,0,0,1},
+                {1,1,1,1,1,1,0,1,1,0,1,1,0,1,1,1,1,1,1},
+                {1,0,0,0,0,0,0,1,0,0,0,1,0,0,0,0,0,0,1},
+                {1,0,1,1,1,1,0,1,0,1,0,1,0,1,1,1,1,0,1},
+                {1,0,1,0,0,0,0,0,0,1,0,0,0,0,0,0,1,0,1},
+                {1,0,0,0,1,1,1,1,1,0,1,1,1,1,1,0,0,0,1},
+                {1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,1},
+                {1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1,1}
+        };
+
+        List<int[][]> levels = new ArrayList<>();
+        levels.add(level1);
+        levels.add(level2);
+        levels.add(level3);
+        return levels;
+    }
+
+    public static int count() {
+        return LevelPack.shared().count();
+    }
+
+    // Identifies the maze a replay was recorded on; see LevelPack.hash
+    public static long hash(int index) {
+        return LevelPack.shared().hash(index);
+    }
+
+    // Returns the shared level, falling back to the first one for an unknown index
+    public static Level get(int index) {
+        if (index < 0 || index >= count()) index = 0;
+        return LevelPack.shared().get(index);
+    }
+}
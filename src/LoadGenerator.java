@@ -0,0 +1,159 @@
+import java.net.InetAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Drives many LoopbackClients against a GameServer from one thread and
+// reports how steadily updates arrive. Each client plays random turns and
+// joins a new game as soon as its game ends, so the server always hosts
+// --games games. With --in-process the server runs in this JVM: the report
+// then adds the server's own per-game CPU cost and the heap each game holds,
+// measured across the JOINs with the connections already open.
+//
+// Usage: LoadGenerator [--games N] [--seconds S] [--level N] [--ghosts N]
+//                      [--host H] [--port N] [--in-process] [--shards N]
+//                      [--update-every TICKS]
+public class LoadGenerator {
+
+    private static final long JOIN_TIMEOUT_NANOS = 30_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        int games = 200;
+        double seconds = 20;
+        int level = 1;
+        int ghosts = 0;
+        InetAddress host = InetAddress.getLoopbackAddress();
+        int port = ServerProtocol.DEFAULT_PORT;
+        boolean inProcess = false;
+        int shards = Runtime.getRuntime().availableProcessors();
+        int updateEvery = 2;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--in-process")) {
+                inProcess = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.out.println("Missing value for " + args[i]);
+                System.exit(2);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--games" -> games = Integer.parseInt(value);
+                case "--seconds" -> seconds = Double.parseDouble(value);
+                case "--level" -> level = Integer.parseInt(value);
+                case "--ghosts" -> ghosts = Integer.parseInt(value);
+                case "--host" -> host = InetAddress.getByName(value);
+                case "--port" -> port = Integer.parseInt(value);
+                case "--shards" -> shards = Integer.parseInt(value);
+                case "--update-every" -> updateEvery = Integer.parseInt(value);
+                default -> {
+                    System.out.println("Unknown option " + args[i - 1]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        GameServer server = null;
+        if (inProcess) {
+            server = new GameServer(host, 0, shards, games, updateEvery, Long.MAX_VALUE);
+            server.start();
+            port = server.getPort();
+        }
+
+        SplittableRandom random = new SplittableRandom(1);
+        List<LoopbackClient> clients = new ArrayList<>();
+        long[] lastUpdate = new long[games];
+        Selector selector = Selector.open();
+        for (int i = 0; i < games; i++) {
+            LoopbackClient client = new LoopbackClient(host, port);
+            client.getChannel().register(selector, SelectionKey.OP_READ, i);
+            clients.add(client);
+        }
+
+        long heapBefore = inProcess ? usedHeapAfterGc() : 0;
+        for (int i = 0; i < games; i++) clients.get(i).join(level - 1, 0, ghosts, "load-" + i);
+        long joinStart = System.nanoTime();
+        int joined = 0;
+        while (joined < games && System.nanoTime() - joinStart < JOIN_TIMEOUT_NANOS) {
+            selector.select(100);
+            for (SelectionKey key : selector.selectedKeys()) {
+                LoopbackClient client = clients.get((Integer) key.attachment());
+                boolean waiting = client.gameId < 0;
+                client.readAvailable();
+                if (waiting && client.gameId >= 0) joined++;
+                if (client.error != null) throw new IllegalStateException("Join failed: " + client.error);
+            }
+            selector.selectedKeys().clear();
+        }
+        System.out.printf("%d of %d games joined in %.0f ms%n", joined, games, (System.nanoTime() - joinStart) / 1e6);
+        if (inProcess) {
+            long heapAfter = usedHeapAfterGc();
+            System.out.printf("Heap held per game: ~%d KB (engine and session; each connection adds ~%d KB of buffers)%n",
+                    Math.max(0, heapAfter - heapBefore) / games >> 10, GameServer.CONNECTION_BUFFER_BYTES >> 10);
+            server.report(); // start the server's report interval here
+        }
+
+        LatencyHistogram gaps = new LatencyHistogram();
+        long finished = 0, won = 0, rejoinFailures = 0;
+        long bytesBefore = 0;
+        for (LoopbackClient c : clients) bytesBefore += c.bytesRead;
+        long runStart = System.nanoTime();
+        for (int i = 0; i < games; i++) lastUpdate[i] = runStart;
+        long runNanos = (long) (seconds * 1e9);
+        while (System.nanoTime() - runStart < runNanos) {
+            selector.select(100);
+            long now = System.nanoTime();
+            for (SelectionKey key : selector.selectedKeys()) {
+                int index = (Integer) key.attachment();
+                LoopbackClient client = clients.get(index);
+                int states = client.readAvailable();
+                if (states < 0) throw new IllegalStateException("Server closed connection " + index);
+                if (states > 0) {
+                    gaps.record(now - lastUpdate[index]);
+                    lastUpdate[index] = now;
+                    // About four turns a second at 30 updates a second
+                    if (!client.over && random.nextInt(8) == 0) client.input(Direction.of(random.nextInt(4)));
+                }
+                if (client.error != null) {
+                    rejoinFailures++;
+                    client.error = null;
+                }
+                if (client.over) {
+                    finished++;
+                    if (client.overStatus == GameEngine.Status.WON) won++;
+                    client.join(level - 1, 0, ghosts, "load-" + index);
+                    lastUpdate[index] = now;
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+        double elapsed = (System.nanoTime() - runStart) / 1e9;
+        long bytes = -bytesBefore;
+        long updates = gaps.getCount();
+        for (LoopbackClient c : clients) bytes += c.bytesRead;
+
+        System.out.printf("%d clients for %.1f s: %d games finished (%d won), %d join errors%n",
+                games, elapsed, finished, won, rejoinFailures);
+        System.out.printf("Updates: %.1f/s per client (%d expected), gap p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                updates / elapsed / games, GameClock.TICKS_PER_SECOND / updateEvery,
+                gaps.percentile(50) / 1e6, gaps.percentile(99) / 1e6, gaps.getMax() / 1e6);
+        System.out.printf("Received: %.0f B/s per client%n", bytes / elapsed / games);
+        if (inProcess) System.out.println(server.report());
+
+        if (server != null) server.close();
+        for (LoopbackClient c : clients) c.close();
+        selector.close();
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
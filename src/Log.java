@@ -0,0 +1,172 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Small asynchronous logger. Callers claim a slot in a preallocated ring buffer
+// and store the format string and arguments; a background thread formats and
+// writes them, so the game loop never waits on stdout. Each category has its own
+// severity threshold, read from -Dpacman.log.<category>=DEBUG (default INFO). Guard
+// hot call sites with isEnabled() so disabled messages cost nothing, not even varargs.
+// A shutdown hook writes out whatever is still in the ring when the JVM exits.
+public class Log {
+
+    public enum Severity { ERROR, WARN, INFO, DEBUG, TRACE }
+
+    public enum Category { GAME, GHOST_AI, DB, ASSETS }
+
+    private static final int CAPACITY = 4096; // power of two
+    private static final int MAX_ARGS = 8;
+
+    // Threshold per Category ordinal; replaced whole on change so readers on any thread see it
+    private static volatile Severity[] thresholds;
+
+    private static final Slot[] ring = new Slot[CAPACITY];
+    private static final AtomicLong tail = new AtomicLong();
+    private static volatile long head = 0;
+    private static final AtomicLong dropped = new AtomicLong();
+
+    // Consumer state, used by the writer thread and the shutdown hook under drainLock
+    private static final Object drainLock = new Object();
+    private static final Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+    private static final Object[][] argsBySize = new Object[MAX_ARGS + 1][];
+    private static long reportedDrops;
+
+    private static class Slot {
+        volatile long sequence = -1;
+        long timeMillis;
+        Severity severity;
+        Category category;
+        String format;
+        final Object[] args = new Object[MAX_ARGS];
+        int argCount;
+    }
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) ring[i] = new Slot();
+        for (int i = 0; i <= MAX_ARGS; i++) argsBySize[i] = new Object[i];
+        Severity[] configuredThresholds = new Severity[Category.values().length];
+        for (Category c : Category.values()) {
+            String configured = System.getProperty("pacman.log." + c.name().toLowerCase());
+            Severity threshold = Severity.INFO;
+            if (configured != null) {
+                try {
+                    threshold = Severity.valueOf(configured.trim().toUpperCase());
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+            configuredThresholds[c.ordinal()] = threshold;
+        }
+        thresholds = configuredThresholds;
+        Thread drainer = new Thread(Log::drain, "log-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                writePending();
+            } catch (IOException ignored) {
+            }
+        }, "log-flush"));
+    }
+
+    public static boolean isEnabled(Category category, Severity severity) {
+        return severity.ordinal() <= thresholds[category.ordinal()].ordinal();
+    }
+
+    public static synchronized void setThreshold(Category category, Severity severity) {
+        Severity[] updated = thresholds.clone();
+        updated[category.ordinal()] = severity;
+        thresholds = updated;
+    }
+
+    public static void error(Category category, String format, Object... args) {
+        log(Severity.ERROR, category, format, args);
+    }
+
+    public static void warn(Category category, String format, Object... args) {
+        log(Severity.WARN, category, format, args);
+    }
+
+    public static void info(Category category, String format, Object... args) {
+        log(Severity.INFO, category, format, args);
+    }
+
+    public static void debug(Category category, String format, Object... args) {
+        log(Severity.DEBUG, category, format, args);
+    }
+
+    public static void trace(Category category, String format, Object... args) {
+        log(Severity.TRACE, category, format, args);
+    }
+
+    // Never blocks: when the writer falls a full ring behind, the message is counted and dropped
+    public static void log(Severity severity, Category category, String format, Object... args) {
+        if (!isEnabled(category, severity)) return;
+
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+
+        Slot slot = ring[(int) (seq & (CAPACITY - 1))];
+        slot.timeMillis = System.currentTimeMillis();
+        slot.severity = severity;
+        slot.category = category;
+        slot.format = format;
+        int n = Math.min(args.length, MAX_ARGS);
+        System.arraycopy(args, 0, slot.args, 0, n);
+        slot.argCount = n;
+        slot.sequence = seq; // publish
+    }
+
+    private static void drain() {
+        while (true) {
+            try {
+                if (writePending() == 0) LockSupport.parkNanos(1_000_000);
+            } catch (IOException e) {
+                LockSupport.parkNanos(100_000_000);
+            }
+        }
+    }
+
+    // Writes every published message, then flushes; returns how many were written
+    private static int writePending() throws IOException {
+        synchronized (drainLock) {
+            int written = 0;
+            while (true) {
+                Slot slot = ring[(int) (head & (CAPACITY - 1))];
+                if (slot.sequence != head) break;
+
+                Object[] args = argsBySize[slot.argCount];
+                System.arraycopy(slot.args, 0, args, 0, slot.argCount);
+                String message;
+                try {
+                    message = args.length == 0 ? slot.format : String.format(slot.format, args);
+                } catch (RuntimeException e) {
+                    message = slot.format + " (bad log format: " + e.getMessage() + ")";
+                }
+                out.write(Instant.ofEpochMilli(slot.timeMillis) + " " + slot.severity + " [" + slot.category + "] " + message);
+                out.write(System.lineSeparator());
+
+                Arrays.fill(slot.args, 0, slot.argCount, null);
+                head = head + 1; // frees the slot for producers
+                written++;
+            }
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                out.write("Log ring buffer full, dropped " + (drops - reportedDrops) + " message(s)" + System.lineSeparator());
+                reportedDrops = drops;
+            }
+            out.flush();
+            return written;
+        }
+    }
+}
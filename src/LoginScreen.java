@@ -1,21 +1,31 @@
+import javafx.application.Platform;
+import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.stage.Stage;
 
-public class LoginScreen {
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+public class LoginScreen implements Navigator.Screen {
+
+    private final GridPane grid = new GridPane();
+    private final PasswordField password = new PasswordField();
+    private final Label message = new Label();
+    private final ProgressIndicator progress = new ProgressIndicator();
+    private final Button loginBtn = new Button("Login");
+    private CompletableFuture<Boolean> pending;
 
     public static void show(Stage stage) {
-        javafx.scene.image.Image loginIcon = new javafx.scene.image.Image(
-                LoginScreen.class.getResourceAsStream("/icons/login.png"),
-                16, 16, true, true
-        );
-        javafx.scene.image.Image registerIcon = new javafx.scene.image.Image(
-                LoginScreen.class.getResourceAsStream("/icons/login.png"),
-                16, 16, true, true
-        );
+        Navigator.show(stage, LoginScreen.class, () -> new LoginScreen(stage));
+    }
+
+    private LoginScreen(Stage stage) {
+        javafx.scene.image.Image loginIcon = Icons.get("login.png");
+        javafx.scene.image.Image registerIcon = Icons.get("login.png");
 
         Label title = new Label("Login to Anjan");
         title.setStyle("-fx-font-size: 24px; -fx-font-weight: bold; -fx-text-fill: rgba(207,159,64,0.94)");
@@ -27,21 +37,20 @@ public class LoginScreen {
 
         Label passLabel = new Label("Password:");
         passLabel.setStyle("-fx-text-fill: rgb(207,159,64)");
-        PasswordField password = new PasswordField();
         password.setPromptText("Enter password");
 
-        Button loginBtn = new Button("Login");
         Button registerBtn = new Button("Register");
 
-        Label message = new Label();
         message.setStyle("-fx-text-fill: red;");
+        progress.setPrefSize(16, 16);
+        progress.setVisible(false);
 
-        GridPane grid = new GridPane();
         grid.setAlignment(Pos.CENTER);
         grid.setPadding(new Insets(20));
         grid.setHgap(15);
         grid.setVgap(15);
         grid.setStyle("-fx-background-color: rgb(56,64,152); -fx-border-color: rgba(207,159,64,0.94); -fx-border-width: 2px;");
+        grid.setPrefSize(400, 350);
 
         grid.add(title, 0, 0, 2, 1); // span 2 columns
         grid.add(userLabel, 0, 1);
@@ -51,6 +60,8 @@ public class LoginScreen {
         grid.add(loginBtn, 1, 3);
         grid.add(registerBtn, 0, 3);
         grid.add(message, 0, 4, 2, 1);
+        grid.add(progress, 1, 4);
+        GridPane.setHalignment(progress, HPos.RIGHT);
 
         loginBtn.setMaxWidth(Double.MAX_VALUE);
         loginBtn.setGraphic(new javafx.scene.image.ImageView(loginIcon));
@@ -62,21 +73,67 @@ public class LoginScreen {
                 message.setText("All fields required!");
                 return;
             }
-            if (UserDAO.login(username.getText(), password.getText())) {
-                Session.currentUser = username.getText();
-                message.setStyle("-fx-text-fill: green;");
-                message.setText("Login Success!");
-                MenuScreen.show(stage);
-            } else {
-                message.setStyle("-fx-text-fill: red;");
-                message.setText("Invalid credentials!");
-            }
+            String user = username.getText();
+            setBusy(true);
+            message.setStyle("-fx-text-fill: white;");
+            message.setText("Logging in...");
+            // The check runs off the FX thread; only the latest attempt's result is shown
+            CompletableFuture<Boolean> attempt = AsyncDAO.login(user, password.getText());
+            pending = attempt;
+            attempt.whenCompleteAsync((ok, error) -> {
+                if (pending != attempt) return;
+                pending = null;
+                setBusy(false);
+                if (error != null) {
+                    Log.warn(Log.Category.DB, "Login failed: %s", error.toString());
+                    message.setStyle("-fx-text-fill: red;");
+                    message.setText(error instanceof TimeoutException
+                            ? "The database is not responding. Try again."
+                            : "Could not reach the database.");
+                } else if (ok) {
+                    Session.currentUser = user;
+                    message.setStyle("-fx-text-fill: green;");
+                    message.setText("Login Success!");
+                    MenuScreen.show(stage);
+                } else {
+                    message.setStyle("-fx-text-fill: red;");
+                    message.setText("Invalid credentials!");
+                }
+            }, Platform::runLater);
         });
 
         registerBtn.setOnAction(e -> RegisterScreen.show(stage));
+    }
+
+    @Override
+    public Parent getRoot() {
+        return grid;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Pac-Man Login";
+    }
+
+    // The username is kept for the next login; the password and last message are not
+    @Override
+    public void onShow() {
+        password.clear();
+        message.setText("");
+        message.setStyle("-fx-text-fill: red;");
+    }
+
+    @Override
+    public void onHide() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+            setBusy(false);
+        }
+    }
 
-        stage.setScene(new Scene(grid, 400, 350));
-        stage.setTitle("Pac-Man Login");
-        stage.show();
+    private void setBusy(boolean busy) {
+        loginBtn.setDisable(busy);
+        progress.setVisible(busy);
     }
 }
@@ -0,0 +1,204 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.SplittableRandom;
+
+// Thin client for GameServer: joins a game, sends inputs and decodes the
+// server's frames into the latest game state. The channel is non-blocking so
+// LoadGenerator can drive hundreds of clients from one thread; call
+// readAvailable() whenever it is readable. Run on its own it plays one game
+// with random turns and prints each second's state:
+//
+// Usage: LoopbackClient [--host H] [--port N] [--level N] [--seed S] [--ghosts N]
+public class LoopbackClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(16 * 1024);
+    private final ByteBuffer out = ByteBuffer.allocate(256);
+
+    // Latest state from the server
+    int gameId = -1;
+    int level, rows, cols;
+    long seed;
+    byte[] ghostTypes = new byte[0];
+    int tick, score;
+    double pacX, pacY;
+    int pacDirection;
+    double[] ghostX = new double[0], ghostY = new double[0];
+    byte[] ghostStates = new byte[0];
+    int pelletsEaten;
+    boolean over;
+    GameEngine.Status overStatus;
+    String error;
+
+    long updates;
+    long bytesRead;
+
+    public LoopbackClient(InetAddress host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(java.net.StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    // level is 0-based; seed 0 lets the server pick; ghosts 0 plays the level's own
+    public void join(int level, long seed, int ghosts, String name) throws IOException {
+        gameId = -1;
+        over = false;
+        overStatus = null;
+        pelletsEaten = 0;
+        int start = ServerProtocol.begin(out, ServerProtocol.JOIN, 16 + ServerProtocol.stringSize(name));
+        out.putInt(level);
+        out.putLong(seed);
+        out.putInt(ghosts);
+        ServerProtocol.putString(out, name);
+        ServerProtocol.end(out, start);
+        send();
+    }
+
+    public void input(Direction direction) throws IOException {
+        int start = ServerProtocol.begin(out, ServerProtocol.INPUT, 1);
+        out.put((byte) direction.ordinal());
+        ServerProtocol.end(out, start);
+        send();
+    }
+
+    public void leave() throws IOException {
+        int start = ServerProtocol.begin(out, ServerProtocol.LEAVE, 0);
+        ServerProtocol.end(out, start);
+        send();
+    }
+
+    // Client frames are a few bytes, so the socket buffer takes them whole in practice
+    private void send() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            if (channel.write(out) == 0) Thread.onSpinWait();
+        }
+        out.clear();
+    }
+
+    // Reads and decodes whatever has arrived; returns the number of STATE frames, or -1 once the server closed
+    public int readAvailable() throws IOException {
+        int n = channel.read(in);
+        if (n < 0) return -1;
+        bytesRead += n;
+        in.flip();
+        int states = 0;
+        int length;
+        while ((length = ServerProtocol.available(in)) >= 0) {
+            int end = in.position() + 2 + length;
+            in.position(in.position() + 2);
+            byte type = in.get();
+            switch (type) {
+                case ServerProtocol.JOINED -> readJoined();
+                case ServerProtocol.STATE -> {
+                    readState();
+                    states++;
+                }
+                case ServerProtocol.OVER -> {
+                    overStatus = GameEngine.Status.values()[in.get()];
+                    score = in.getInt();
+                    tick = in.getInt();
+                    over = true;
+                }
+                case ServerProtocol.ERROR -> error = ServerProtocol.getString(in);
+                default -> throw new IOException("Unknown frame " + type);
+            }
+            in.position(end);
+        }
+        in.compact();
+        updates += states;
+        return states;
+    }
+
+    private void readJoined() {
+        gameId = in.getInt();
+        level = in.getInt();
+        seed = in.getLong();
+        rows = in.getShort();
+        cols = in.getShort();
+        int ghosts = in.getShort();
+        ghostTypes = new byte[ghosts];
+        in.get(ghostTypes);
+        ghostX = new double[ghosts];
+        ghostY = new double[ghosts];
+        ghostStates = new byte[ghosts];
+    }
+
+    private void readState() {
+        tick = in.getInt();
+        score = in.getInt();
+        pacX = (double) in.getShort() / ServerProtocol.POSITION_SCALE;
+        pacY = (double) in.getShort() / ServerProtocol.POSITION_SCALE;
+        pacDirection = in.get();
+        int ghosts = in.getShort();
+        for (int i = 0; i < ghosts; i++) {
+            ghostX[i] = (double) in.getShort() / ServerProtocol.POSITION_SCALE;
+            ghostY[i] = (double) in.getShort() / ServerProtocol.POSITION_SCALE;
+            ghostStates[i] = in.get();
+        }
+        int eaten = in.getShort();
+        // A renderer would clear these tiles; here they are only counted
+        in.position(in.position() + 4 * eaten);
+        pelletsEaten += eaten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        int port = ServerProtocol.DEFAULT_PORT;
+        int level = 1;
+        long seed = 0;
+        int ghosts = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--host" -> host = InetAddress.getByName(value);
+                case "--port" -> port = Integer.parseInt(value);
+                case "--level" -> level = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--ghosts" -> ghosts = Integer.parseInt(value);
+                default -> {
+                    System.out.println("Unknown option " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom();
+        try (LoopbackClient client = new LoopbackClient(host, port); Selector selector = Selector.open()) {
+            client.getChannel().register(selector, SelectionKey.OP_READ);
+            client.join(level - 1, seed, ghosts, "loopback");
+            int lastSecond = -1;
+            while (!client.over && client.error == null) {
+                selector.select(1000);
+                selector.selectedKeys().clear();
+                if (client.readAvailable() < 0) break;
+                if (client.gameId >= 0 && random.nextInt(8) == 0) client.input(Direction.of(random.nextInt(4)));
+                int second = client.tick / GameClock.TICKS_PER_SECOND;
+                if (second != lastSecond && client.gameId >= 0) {
+                    lastSecond = second;
+                    System.out.printf("game %d, %ds: score %d, Pac-Man at (%.1f, %.1f), %d pellets eaten%n",
+                            client.gameId, second, client.score, client.pacX, client.pacY, client.pelletsEaten);
+                }
+            }
+            if (client.error != null) System.out.println("Server: " + client.error);
+            if (client.over) {
+                System.out.printf("Game over: %s, score %d after %d ticks; %d updates, %d bytes%n",
+                        client.overStatus, client.score, client.tick, client.updates, client.bytesRead);
+            }
+        }
+    }
+}
@@ -4,7 +4,16 @@ import javafx.stage.Stage;
 public class Main extends Application {
     @Override
     public void start(Stage stage) {
+        ScoreWriter.start();
+        Thread leaderboardLoader = new Thread(Leaderboard::load, "leaderboard-loader");
+        leaderboardLoader.setDaemon(true);
+        leaderboardLoader.start();
+        Thread preloader = new Thread(Startup::preload, "startup-preload");
+        preloader.setDaemon(true);
+        preloader.setPriority(Thread.MIN_PRIORITY);
+        preloader.start();
         LoginScreen.show(stage);
+        Startup.loginScreenShown();
     }
     public static void main(String[] args) {
         launch();
@@ -0,0 +1,67 @@
+import java.util.Random;
+
+// Generates playable mazes of any size for benchmarks, batch runs and level packs.
+// Cells on odd (row, col) are carved into a spanning tree by a randomized
+// depth-first walk, then a share of the remaining inner walls is knocked out so
+// corridors form loops like the hand-made levels.
+public class MazeGenerator {
+
+    private static final int[] DR = {-2, 2, 0, 0};
+    private static final int[] DC = {0, 0, -2, 2};
+
+    public static int[][] generate(int rows, int cols, long seed) {
+        return generate(rows, cols, seed, 0.15);
+    }
+
+    public static int[][] generate(int rows, int cols, long seed, double loopChance) {
+        if (rows < 15 || cols < 11) {
+            throw new IllegalArgumentException("Maze must be at least 15x11 to fit the spawn points, got " + rows + "x" + cols);
+        }
+        Random random = new Random(seed);
+        int[][] map = new int[rows][cols];
+        for (int[] row : map) java.util.Arrays.fill(row, 1);
+
+        // Iterative DFS over odd cells; stack holds cell indices
+        int[] stack = new int[rows * cols];
+        int top = 0;
+        map[1][1] = 0;
+        stack[top++] = cols + 1;
+        int[] order = {0, 1, 2, 3};
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int r = cell / cols, c = cell % cols;
+            shuffle(order, random);
+            boolean moved = false;
+            for (int d : order) {
+                int nr = r + DR[d], nc = c + DC[d];
+                if (nr < 1 || nr >= rows - 1 || nc < 1 || nc >= cols - 1 || map[nr][nc] == 0) continue;
+                map[r + DR[d] / 2][c + DC[d] / 2] = 0;
+                map[nr][nc] = 0;
+                stack[top++] = nr * cols + nc;
+                moved = true;
+                break;
+            }
+            if (!moved) top--;
+        }
+
+        // Open extra walls that sit between two corridors to create loops
+        for (int r = 1; r < rows - 1; r++) {
+            for (int c = 1; c < cols - 1; c++) {
+                if (map[r][c] != 1 || random.nextDouble() >= loopChance) continue;
+                boolean vertical = map[r - 1][c] == 0 && map[r + 1][c] == 0;
+                boolean horizontal = map[r][c - 1] == 0 && map[r][c + 1] == 0;
+                if (vertical != horizontal) map[r][c] = 0;
+            }
+        }
+        return map;
+    }
+
+    private static void shuffle(int[] a, Random random) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+}
@@ -1,14 +1,21 @@
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.GridPane;
 import javafx.stage.Stage;
 
-public class MenuScreen {
+public class MenuScreen implements Navigator.Screen {
+
+    private final GridPane grid = new GridPane();
+    private final Label title = new Label();
+
     public static void show(Stage stage) {
-        Label title = new Label("Welcome, " + Session.currentUser + "!");
+        Navigator.show(stage, MenuScreen.class, () -> new MenuScreen(stage));
+    }
+
+    private MenuScreen(Stage stage) {
         title.setStyle("-fx-font-size: 24px; -fx-text-fill: rgba(207,159,64,0.94); -fx-font-weight: bold;");
 
         Button playBtn = new Button("Play Game");
@@ -36,21 +43,31 @@ public class MenuScreen {
             LoginScreen.show(stage);
         });
 
-        GridPane grid = new GridPane();
         grid.setAlignment(Pos.CENTER);
         grid.setPadding(new Insets(20));
         grid.setHgap(15);
         grid.setVgap(20);
         grid.setStyle("-fx-background-color: rgb(56,64,152); -fx-border-color: rgba(207,159,64,0.94); -fx-border-width: 2px;");
+        grid.setPrefSize(400, 300);
 
         grid.add(title, 0, 0, 2, 1);
         grid.add(playBtn, 0, 1, 2, 1);
         grid.add(historyBtn, 0, 2, 2, 1);
         grid.add(backBtn, 0, 3, 2, 1);
+    }
+
+    @Override
+    public Parent getRoot() {
+        return grid;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Main Menu";
+    }
 
-        Scene scene = new Scene(grid, 400, 300);
-        stage.setScene(scene);
-        stage.setTitle("Main Menu");
-        stage.show();
+    @Override
+    public void onShow() {
+        title.setText("Welcome, " + Session.currentUser + "!");
     }
 }
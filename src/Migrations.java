@@ -0,0 +1,200 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Versioned schema changes, applied in order when the pool is first created.
+// Each script in migrations/ runs once; schema_migrations records its version
+// and a SHA-256 of its text. A script that was edited after it was applied
+// stops startup rather than leaving the schema in an unknown state, so change
+// the schema by adding the next V<n>__<description>.sql to SCRIPTS, never by
+// editing an applied one.
+public class Migrations {
+
+    private static final String[] SCRIPTS = {
+            "V1__create_tables.sql",
+            "V2__result_level_and_replay.sql",
+            "V3__query_indexes.sql",
+    };
+
+    // ALTER TABLE <table> ADD [COLUMN] <column> ..., one column per statement
+    private static final Pattern ADD_COLUMN =
+            Pattern.compile("(?is)^ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+(?:COLUMN\\s+)?(\\w+)\\s.*");
+
+    public static class Script {
+        private final int version;
+        private final String name;
+        private final String sql;
+        private final String checksum;
+
+        Script(String name, String sql) throws Exception {
+            this.version = Integer.parseInt(name.substring(1, name.indexOf("__")));
+            this.name = name;
+            this.sql = sql.replace("\r\n", "\n");
+            this.checksum = sha256(this.sql);
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+
+        // The script's statements, split on ';' at the end of a line with '--' comment lines dropped
+        public List<String> statements() {
+            List<String> statements = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            for (String line : sql.split("\n")) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String statement = current.toString().trim();
+                    statements.add(statement.substring(0, statement.length() - 1));
+                    current.setLength(0);
+                }
+            }
+            if (current.toString().trim().length() > 0) statements.add(current.toString().trim());
+            return statements;
+        }
+    }
+
+    // Brings the schema up to the latest version; throws if a script fails or was changed
+    public static void migrate(ConnectionPool pool) throws Exception {
+        try (Connection conn = pool.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS schema_migrations ("
+                        + "version INT PRIMARY KEY, "
+                        + "description VARCHAR(200) NOT NULL, "
+                        + "checksum CHAR(64) NOT NULL, "
+                        + "applied_at TIMESTAMP NOT NULL)");
+            }
+
+            Map<Integer, String> applied = new HashMap<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+                while (rs.next()) applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+
+            int previous = 0;
+            for (Script script : scripts()) {
+                if (script.getVersion() <= previous) {
+                    throw new IllegalStateException("Migration " + script.getName() + " is out of order");
+                }
+                previous = script.getVersion();
+
+                String recorded = applied.get(script.getVersion());
+                if (recorded != null) {
+                    if (!recorded.equals(script.getChecksum())) {
+                        throw new IllegalStateException("Migration " + script.getName()
+                                + " was changed after it was applied (recorded checksum " + recorded
+                                + ", now " + script.getChecksum() + ")");
+                    }
+                    continue;
+                }
+                apply(conn, script);
+            }
+        }
+    }
+
+    // MySQL commits each DDL statement on its own, so a script that fails
+    // halfway on MySQL leaves its earlier statements applied and must be
+    // finished by hand; H2 rolls the whole script back
+    private static void apply(Connection conn, Script script) throws SQLException {
+        long start = System.nanoTime();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                for (String statement : script.statements()) {
+                    if (addsExistingColumn(conn, statement)) {
+                        Log.info(Log.Category.DB, "Migration %s: column already exists, skipping %s",
+                                script.getName(), statement);
+                        continue;
+                    }
+                    stmt.execute(statement);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_migrations (version, description, checksum, applied_at) VALUES (?, ?, ?, ?)")) {
+                stmt.setInt(1, script.getVersion());
+                stmt.setString(2, script.getName());
+                stmt.setString(3, script.getChecksum());
+                stmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Migration " + script.getName() + " failed: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        Log.info(Log.Category.DB, "Applied migration %s in %.0f ms",
+                script.getName(), (System.nanoTime() - start) / 1e6);
+    }
+
+    // Databases upgraded by hand before migrations existed may already have
+    // a column a script adds; MySQL has no ADD COLUMN IF NOT EXISTS
+    private static boolean addsExistingColumn(Connection conn, String statement) throws SQLException {
+        Matcher m = ADD_COLUMN.matcher(statement.trim());
+        if (!m.matches()) return false;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM " + m.group(1) + " WHERE 1 = 0")) {
+            ResultSetMetaData meta = rs.getMetaData();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                if (meta.getColumnName(i).equalsIgnoreCase(m.group(2))) return true;
+            }
+        }
+        return false;
+    }
+
+    // Every script in order, read from the classpath or, when running from the source tree, src/migrations
+    public static List<Script> scripts() throws Exception {
+        List<Script> scripts = new ArrayList<>();
+        for (String name : SCRIPTS) scripts.add(new Script(name, read(name)));
+        return scripts;
+    }
+
+    private static String read(String name) throws IOException {
+        try (InputStream in = Migrations.class.getResourceAsStream("/migrations/" + name)) {
+            if (in != null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                in.transferTo(out);
+                return out.toString(StandardCharsets.UTF_8);
+            }
+        }
+        Path file = Paths.get("src", "migrations", name);
+        if (!Files.exists(file)) throw new IOException("Migration script not found: " + name);
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(String text) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest) hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+}
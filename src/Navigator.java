@@ -0,0 +1,52 @@
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Menu-screen navigation for the app's one Stage. Each screen is built the
+// first time it is shown and then kept; showing it again swaps its root into
+// a single shared Scene, so nodes, inline styles and icons are reused instead
+// of rebuilt. Anything that can change between visits (the logged-in user,
+// history rows, best scores) is refreshed in the screen's onShow(), and work
+// started for a screen can be stopped in its onHide().
+public class Navigator {
+
+    public interface Screen {
+        // The screen's root; its preferred size is the window size
+        Parent getRoot();
+
+        String getTitle();
+
+        // Called every time the screen is shown, once its root is in the scene
+        default void onShow() {
+        }
+
+        // Called when another screen is shown in its place, e.g. to cancel loads in flight
+        default void onHide() {
+        }
+    }
+
+    private static final Map<Class<? extends Screen>, Screen> screens = new HashMap<>();
+    private static Scene scene;
+    private static Screen current;
+
+    public static void show(Stage stage, Class<? extends Screen> type, Supplier<? extends Screen> factory) {
+        Screen screen = screens.computeIfAbsent(type, t -> factory.get());
+        if (current != null && current != screen) current.onHide();
+        current = screen;
+        if (scene == null) {
+            scene = new Scene(screen.getRoot());
+        } else if (scene.getRoot() != screen.getRoot()) {
+            scene.setRoot(screen.getRoot());
+        }
+        // Games and replays use scenes of their own; coming back restores this one
+        if (stage.getScene() != scene) stage.setScene(scene);
+        stage.sizeToScene();
+        stage.setTitle(screen.getTitle());
+        stage.show();
+        screen.onShow();
+    }
+}
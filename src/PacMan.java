@@ -1,9 +1,7 @@
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-
 public class PacMan {
     private double x; // For PacMan, x and y are the top-left corner of its drawing rectangle
     private double y;
+    private double prevX, prevY; // Position at the previous tick, for interpolated drawing
     private final double SIZE = 22; // PacMan's width/height
     private final double SPEED = 2.5;
     private double speedX = 0;
@@ -12,36 +10,25 @@ public class PacMan {
     private double mouthAngle = 30;
     private boolean mouthOpening = false;
 
-    private String direction = "RIGHT";
+    private Direction direction = Direction.RIGHT;
 
     public PacMan(double startX, double startY) {
         this.x = startX;
         this.y = startY;
+        this.prevX = startX;
+        this.prevY = startY;
     }
 
-    public void setDirection(String dir) {
+    public void setDirection(Direction dir) {
         this.direction = dir;
-        switch (dir) {
-            case "UP" -> {
-                speedX = 0;
-                speedY = -SPEED;
-            }
-            case "DOWN" -> {
-                speedX = 0;
-                speedY = SPEED;
-            }
-            case "LEFT" -> {
-                speedX = -SPEED;
-                speedY = 0;
-            }
-            case "RIGHT" -> {
-                speedX = SPEED;
-                speedY = 0;
-            }
-        }
+        speedX = dir.dc * SPEED;
+        speedY = dir.dr * SPEED;
     }
 
-    public void update(Game game) {
+    // Advances Pac-Man by one simulation tick
+    public void update(GameEngine game) {
+        prevX = x;
+        prevY = y;
         double nextX = x + speedX;
         double nextY = y + speedY;
 
@@ -60,28 +47,6 @@ public class PacMan {
         }
     }
 
-    public void draw(GraphicsContext gc) {
-        gc.setFill(Color.YELLOW);
-        double startAngle = switch (direction) {
-            case "RIGHT" -> mouthAngle;
-            case "LEFT" -> 180 + mouthAngle;
-            case "UP" -> 90 + mouthAngle;
-            case "DOWN" -> 270 + mouthAngle;
-            default -> mouthAngle;
-        };
-        double arcExtent = 360 - 2 * mouthAngle;
-
-        // Pac-Man is drawn from its top-left corner (x,y)
-        gc.fillArc(x, y, SIZE, SIZE, startAngle, arcExtent, javafx.scene.shape.ArcType.ROUND);
-
-        // Draw eye
-        gc.setFill(Color.BLACK);
-        // Eye position adjusts slightly based on direction
-        double eyeX = x + SIZE / 2.7 + (direction.equals("RIGHT") ? 5 : direction.equals("LEFT") ? -5 : 0);
-        double eyeY = y + SIZE / 4.5;
-        gc.fillOval(eyeX, eyeY, 5, 5);
-    }
-
     public boolean checkPelletCollision(double px, double py) {
         // Calculate Pac-Man's center for collision check
         double pacCenterX = x + SIZE / 2.0;
@@ -92,7 +57,7 @@ public class PacMan {
         return Math.sqrt(dx * dx + dy * dy) < (SIZE / 2.0); // No extra margin needed for pellet
     }
 
-    private boolean canMove(double nextX, double nextY, Game game) {
+    boolean canMove(double nextX, double nextY, GameEngine game) {
         // This method checks future corners of Pac-Man's bounding box against walls
         double margin = 2;  // small margin from edges
 
@@ -124,7 +89,20 @@ public class PacMan {
     public double getY() {
         return y + SIZE / 2.0;
     }
-    public String getDirection() {
+    public Direction getDirection() {
         return direction;
     }
+    // Top-left corner interpolated between the previous and current tick
+    public double getDrawX(double alpha) {
+        return prevX + (x - prevX) * alpha;
+    }
+    public double getDrawY(double alpha) {
+        return prevY + (y - prevY) * alpha;
+    }
+    public double getSize() {
+        return SIZE;
+    }
+    public double getMouthAngle() {
+        return mouthAngle;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+// Pellets stored as one bit per tile, indexed by row * cols + col.
+public class PelletGrid {
+    private final int rows;
+    private final int cols;
+    private final long[] bits;
+    private int remaining;
+
+    public PelletGrid(int[][] map) {
+        this.rows = map.length;
+        this.cols = map[0].length;
+        this.bits = new long[(rows * cols + 63) >>> 6];
+        for (int r = 0; r < rows; r++)
+            for (int c = 0; c < cols; c++)
+                if (map[r][c] == 0)
+                    set(r * cols + c);
+    }
+
+    private void set(int index) {
+        bits[index >>> 6] |= 1L << index;
+        remaining++;
+    }
+
+    public boolean has(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) return false;
+        int index = row * cols + col;
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // Clears the pellet on (row, col); returns false if there was none
+    public boolean eat(int row, int col) {
+        if (!has(row, col)) return false;
+        int index = row * cols + col;
+        bits[index >>> 6] &= ~(1L << index);
+        remaining--;
+        return true;
+    }
+
+    public int remaining() {
+        return remaining;
+    }
+
+    public boolean isEmpty() {
+        return remaining == 0;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
@@ -0,0 +1,45 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Appends one line per finished game to ~/.pacman/perf_sessions.log so frame
+// hitches reported from the field can be matched to level, score and hardware.
+public class PerformanceLog {
+
+    private static final Path FILE = Paths.get(System.getProperty("user.home"), ".pacman", "perf_sessions.log");
+
+    // One writer for the whole session; lines are appended in the order games ended
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "perf-log-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Writes on a background thread so the game-over transition never waits on disk
+    public static void append(String username, int level, int score, int timeTaken, boolean cleared,
+                              LocalDateTime playedAt, FrameProfiler profiler) {
+        String line = String.format(Locale.ROOT, "%s user=%s level=%d score=%d time=%d cleared=%b os=%s java=%s cpus=%d maxHeapMB=%d %s%n",
+                playedAt, username, level, score, timeTaken, cleared,
+                System.getProperty("os.name") + "/" + System.getProperty("os.arch"),
+                System.getProperty("java.version"),
+                Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().maxMemory() / (1024 * 1024),
+                profiler.summary());
+        writer.execute(() -> {
+            try {
+                Files.createDirectories(FILE.getParent());
+                Files.write(FILE, line.getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                Log.warn(Log.Category.GAME, "Could not write performance log: %s", e.getMessage());
+            }
+        });
+    }
+}
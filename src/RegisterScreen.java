@@ -1,22 +1,34 @@
+import javafx.application.Platform;
+import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.stage.Stage;
 
-public class RegisterScreen {
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+public class RegisterScreen implements Navigator.Screen {
+
+    private final GridPane grid = new GridPane();
+    private final TextField username = new TextField();
+    private final PasswordField password = new PasswordField();
+    private final PasswordField confirmPassword = new PasswordField();
+    private final Label message = new Label();
+    private final ProgressIndicator progress = new ProgressIndicator();
+    private final Button registerBtn = new Button("Register");
+    private CompletableFuture<Boolean> pending;
 
     public static void show(Stage stage) {
+        Navigator.show(stage, RegisterScreen.class, () -> new RegisterScreen(stage));
+    }
+
+    private RegisterScreen(Stage stage) {
 
-        javafx.scene.image.Image registerIcon = new javafx.scene.image.Image(
-                RegisterScreen.class.getResourceAsStream("/icons/login.png"),
-                16, 16, true, true
-        );
-        javafx.scene.image.Image backIcon = new javafx.scene.image.Image(
-                RegisterScreen.class.getResourceAsStream("/icons/exit.png"),
-                16, 16, true, true
-        );
+        javafx.scene.image.Image registerIcon = Icons.get("login.png");
+        javafx.scene.image.Image backIcon = Icons.get("exit.png");
 
 
         Label title = new Label("Register for Pac-Man");
@@ -25,33 +37,30 @@ public class RegisterScreen {
         Label userLabel = new Label("Username:");
         userLabel.setStyle("-fx-text-fill: rgba(207,159,64,0.94)");
 
-        TextField username = new TextField();
         username.setPromptText("Enter username");
 
         Label passLabel = new Label("Password:");
         passLabel.setStyle("-fx-text-fill: rgba(207,159,64,0.94)");
 
-        PasswordField password = new PasswordField();
         password.setPromptText("Enter password");
 
         Label confirmLabel = new Label("Confirm Password:");
         confirmLabel.setStyle("-fx-text-fill: rgba(207,159,64,0.94)");
 
-        PasswordField confirmPassword = new PasswordField();
         confirmPassword.setPromptText("Re-enter password");
 
-        Button registerBtn = new Button("Register");
         Button backBtn = new Button("Back");
 
-        Label message = new Label();
         message.setStyle("-fx-text-fill: red;");
+        progress.setPrefSize(16, 16);
+        progress.setVisible(false);
 
-        GridPane grid = new GridPane();
         grid.setAlignment(Pos.CENTER);
         grid.setPadding(new Insets(20));
         grid.setHgap(15);
         grid.setVgap(15);
         grid.setStyle("-fx-background-color: rgb(56,64,152); -fx-border-color: rgba(207,159,64,0.94); -fx-border-width: 2px;");
+        grid.setPrefSize(450, 400);
 
         grid.add(title, 0, 0, 2, 1);
         grid.add(userLabel, 0, 1);
@@ -63,6 +72,8 @@ public class RegisterScreen {
         grid.add(registerBtn, 1, 4);
         grid.add(backBtn, 0, 4);
         grid.add(message, 0, 5, 2, 1);
+        grid.add(progress, 1, 5);
+        GridPane.setHalignment(progress, HPos.RIGHT);
 
         registerBtn.setMaxWidth(Double.MAX_VALUE);
         backBtn.setMaxWidth(Double.MAX_VALUE);
@@ -84,19 +95,67 @@ public class RegisterScreen {
                 return;
             }
 
-            if (UserDAO.register(new User(user, pass))) {
-                message.setStyle("-fx-text-fill: green;");
-                message.setText("Registered successfully. Please login.");
-                //registerBtn.setOnAction(actionEvent -> LoginScreen.show(stage));
-            } else {
-                message.setStyle("-fx-text-fill: red;");
-                message.setText("Username already exists.");
-            }
+            setBusy(true);
+            message.setStyle("-fx-text-fill: white;");
+            message.setText("Registering...");
+            CompletableFuture<Boolean> attempt = AsyncDAO.register(new User(user, pass));
+            pending = attempt;
+            attempt.whenCompleteAsync((added, error) -> {
+                if (pending != attempt) return;
+                pending = null;
+                setBusy(false);
+                if (error != null) {
+                    Log.warn(Log.Category.DB, "Registration failed: %s", error.toString());
+                    message.setStyle("-fx-text-fill: red;");
+                    message.setText(error instanceof TimeoutException
+                            ? "The database is not responding. Try again."
+                            : "Could not reach the database.");
+                } else if (added) {
+                    message.setStyle("-fx-text-fill: green;");
+                    message.setText("Registered successfully. Please login.");
+                    //registerBtn.setOnAction(actionEvent -> LoginScreen.show(stage));
+                } else {
+                    message.setStyle("-fx-text-fill: red;");
+                    message.setText("Username already exists.");
+                }
+            }, Platform::runLater);
         });
 
         backBtn.setOnAction(e -> LoginScreen.show(stage));
-        stage.setScene(new Scene(grid, 450, 400));
-        stage.setTitle("Pac-Man Registration");
-        stage.show();
+    }
+
+    @Override
+    public Parent getRoot() {
+        return grid;
+    }
+
+    @Override
+    public String getTitle() {
+        return "Pac-Man Registration";
+    }
+
+    // Every visit starts with an empty form
+    @Override
+    public void onShow() {
+        username.clear();
+        password.clear();
+        confirmPassword.clear();
+        message.setText("");
+        message.setStyle("-fx-text-fill: red;");
+    }
+
+    // Leaving stops waiting for a registration; if the insert already ran, the account exists
+    @Override
+    public void onHide() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+            setBusy(false);
+        }
+    }
+
+    private void setBusy(boolean busy) {
+        registerBtn.setDisable(busy);
+        progress.setVisible(busy);
     }
 }
@@ -0,0 +1,173 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// A recorded game: level, ghost count, RNG seed and the direction changes with
+// the tick they were applied on. Together with the deterministic GameEngine this reproduces the
+// game exactly. The score and tick count the game ended with are kept so a
+// re-simulation can be checked against them.
+//
+// Binary layout (varints are unsigned LEB128):
+//   "PMRP" magic, version byte
+//   varint level, varint ghost count (0 = the level's own),
+//   4-byte CRC-32 of the level's pack record,
+//   8-byte seed, varint ticks, varint score, varint event count
+//   per event: varint (ticks since previous event << 2 | direction ordinal)
+public class Replay {
+
+    private static final byte[] MAGIC = {'P', 'M', 'R', 'P'};
+    private static final int VERSION = 1;
+
+    private final int level;
+    private final int ghostCount;
+    private final long levelHash;
+    private final long seed;
+    private final long ticks;
+    private final int score;
+    private final long[] eventTicks;
+    private final Direction[] eventDirections;
+
+    public Replay(int level, int ghostCount, long levelHash, long seed, long ticks, int score, long[] eventTicks,
+                  Direction[] eventDirections) {
+        if (eventTicks.length != eventDirections.length) {
+            throw new IllegalArgumentException("Event ticks and directions differ in length");
+        }
+        this.level = level;
+        this.ghostCount = ghostCount;
+        this.levelHash = levelHash;
+        this.seed = seed;
+        this.ticks = ticks;
+        this.score = score;
+        this.eventTicks = eventTicks;
+        this.eventDirections = eventDirections;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getGhostCount() {
+        return ghostCount;
+    }
+
+    public long getLevelHash() {
+        return levelHash;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getEventCount() {
+        return eventTicks.length;
+    }
+
+    // Tick (engine tick count before the step) on which event i was applied
+    public long getEventTick(int i) {
+        return eventTicks[i];
+    }
+
+    public Direction getEventDirection(int i) {
+        return eventDirections[i];
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + eventTicks.length * 2);
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(VERSION);
+        writeVarint(out, level);
+        writeVarint(out, ghostCount);
+        for (int shift = 24; shift >= 0; shift -= 8) out.write((int) (levelHash >>> shift));
+        for (int shift = 56; shift >= 0; shift -= 8) out.write((int) (seed >>> shift));
+        writeVarint(out, ticks);
+        writeVarint(out, score);
+        writeVarint(out, eventTicks.length);
+        long previous = 0;
+        for (int i = 0; i < eventTicks.length; i++) {
+            writeVarint(out, (eventTicks[i] - previous) << 2 | eventDirections[i].ordinal());
+            previous = eventTicks[i];
+        }
+        return out.toByteArray();
+    }
+
+    public static Replay fromBytes(byte[] data) throws IOException {
+        Reader in = new Reader(data);
+        for (byte b : MAGIC) {
+            if (in.readByte() != b) throw new IOException("Not a replay file");
+        }
+        int version = in.readByte();
+        if (version != VERSION) throw new IOException("Unsupported replay version " + version);
+
+        int level = (int) in.readVarint();
+        int ghostCount = (int) in.readVarint();
+        long levelHash = 0;
+        for (int i = 0; i < 4; i++) levelHash = levelHash << 8 | (in.readByte() & 0xFF);
+        long seed = 0;
+        for (int i = 0; i < 8; i++) seed = seed << 8 | (in.readByte() & 0xFF);
+        long ticks = in.readVarint();
+        int score = (int) in.readVarint();
+        int count = (int) in.readVarint();
+        if (count < 0 || count > data.length) throw new IOException("Corrupt replay: " + count + " events");
+
+        long[] eventTicks = new long[count];
+        Direction[] eventDirections = new Direction[count];
+        long tick = 0;
+        for (int i = 0; i < count; i++) {
+            long packed = in.readVarint();
+            tick += packed >>> 2;
+            eventTicks[i] = tick;
+            eventDirections[i] = Direction.of((int) (packed & 3));
+        }
+        return new Replay(level, ghostCount, levelHash, seed, ticks, score, eventTicks, eventDirections);
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        Files.write(file, toBytes());
+    }
+
+    public static Replay read(Path file) throws IOException {
+        return fromBytes(Files.readAllBytes(file));
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= data.length) throw new IOException("Truncated replay");
+            return data[pos++];
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Corrupt replay: varint too long");
+        }
+    }
+}
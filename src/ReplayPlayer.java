@@ -0,0 +1,155 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+// Re-simulates a Replay on a fresh GameEngine. step() advances one tick and
+// applies the recorded inputs on the ticks they were made, so the same player
+// drives both real-time playback (ReplayScreen) and headless verification.
+//
+// Usage: ReplayPlayer <replay-file>...        verify files
+//        ReplayPlayer --db [limit]            verify the highest-scoring replays in game_results
+//        ReplayPlayer --export <id> <file>    save a game_results replay to a file, e.g. for a bug report
+// Exits with status 1 if any replay does not reproduce its recorded score.
+public class ReplayPlayer {
+
+    // Walks idx_results_score, skipping rows without a replay
+    static final String TOP_REPLAYS_SQL = "SELECT id, username, score, replay FROM game_results WHERE replay IS NOT NULL "
+            + "ORDER BY score DESC LIMIT ?";
+    static final String REPLAY_SQL = "SELECT replay FROM game_results WHERE id = ?";
+
+    private final Replay replay;
+    private final GameEngine engine;
+    private int nextEvent;
+
+    public ReplayPlayer(Replay replay) {
+        if (replay.getLevel() < 0 || replay.getLevel() >= Levels.count()) {
+            throw new IllegalArgumentException("Replay is for unknown level " + replay.getLevel());
+        }
+        // Same index, different maze: the inputs would play out as a different game
+        long hash = Levels.hash(replay.getLevel());
+        if (replay.getLevelHash() != hash) {
+            throw new IllegalArgumentException(String.format(
+                    "Replay was recorded on a different level %d (level hash %08x, this pack has %08x)",
+                    replay.getLevel() + 1, replay.getLevelHash(), hash));
+        }
+        this.replay = replay;
+        this.engine = new GameEngine(replay.getLevel(), replay.getSeed(), GhostRules.DEFAULT, replay.getGhostCount());
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    // True once the game ended or the recording ran out (the player quit early)
+    public boolean isFinished() {
+        return engine.isOver() || engine.getTicks() >= replay.getTicks();
+    }
+
+    public void step() {
+        if (isFinished()) return;
+        Direction input = null;
+        // Several presses within one tick: only the last one reached the engine
+        while (nextEvent < replay.getEventCount() && replay.getEventTick(nextEvent) == engine.getTicks()) {
+            input = replay.getEventDirection(nextEvent++);
+        }
+        engine.step(input);
+    }
+
+    // Runs the whole replay as fast as possible and returns the finished engine
+    public static GameEngine simulate(Replay replay) {
+        ReplayPlayer player = new ReplayPlayer(replay);
+        while (!player.isFinished()) player.step();
+        return player.engine;
+    }
+
+    // True when re-simulating reproduces the recorded score and length
+    public static boolean verify(Replay replay) {
+        GameEngine engine = simulate(replay);
+        return engine.getScore() == replay.getScore() && engine.getTicks() == replay.getTicks();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: ReplayPlayer <replay-file>... | --db [limit] | --export <id> <file>");
+            System.exit(2);
+        }
+        if (args[0].equals("--export") && args.length == 3) {
+            Replay replay = load(Long.parseLong(args[1]));
+            if (replay == null) {
+                System.out.println("No replay stored for game_results id " + args[1]);
+                System.exit(1);
+            }
+            replay.write(Paths.get(args[2]));
+            return;
+        }
+        int failed = args[0].equals("--db")
+                ? verifyDatabase(args.length > 1 ? Integer.parseInt(args[1]) : 100)
+                : verifyFiles(args);
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private static int verifyFiles(String[] files) {
+        int failed = 0;
+        for (String name : files) {
+            Path file = Paths.get(name);
+            try {
+                if (!report(file.toString(), Replay.read(file), -1)) failed++;
+            } catch (Exception e) {
+                System.out.println(file + ": unreadable (" + e.getMessage() + ")");
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private static int verifyDatabase(int limit) throws Exception {
+        int failed = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(TOP_REPLAYS_SQL)) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String name = "#" + rs.getLong("id") + " " + rs.getString("username");
+                    try {
+                        if (!report(name, Replay.fromBytes(rs.getBytes("replay")), rs.getInt("score"))) failed++;
+                    } catch (Exception e) {
+                        System.out.println(name + ": unreadable (" + e.getMessage() + ")");
+                        failed++;
+                    }
+                }
+            }
+        }
+        return failed;
+    }
+
+    // The replay stored with a game_results row, or null if it has none
+    public static Replay load(long resultId) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REPLAY_SQL)) {
+            stmt.setLong(1, resultId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getBytes("replay") == null) return null;
+                return Replay.fromBytes(rs.getBytes("replay"));
+            }
+        }
+    }
+
+    // Prints one result line; storedScore is the game_results score, or -1 for files
+    private static boolean report(String name, Replay replay, int storedScore) {
+        long start = System.nanoTime();
+        GameEngine engine = simulate(replay);
+        double ms = (System.nanoTime() - start) / 1e6;
+        boolean ok = engine.getScore() == replay.getScore() && engine.getTicks() == replay.getTicks()
+                && (storedScore < 0 || storedScore == replay.getScore());
+        System.out.printf("%s: %s level %d, %d ticks, score %d (recorded %d%s) in %.1f ms%n",
+                name, ok ? "OK" : "MISMATCH", replay.getLevel() + 1, engine.getTicks(), engine.getScore(),
+                replay.getScore(), storedScore < 0 ? "" : ", saved " + storedScore, ms);
+        return ok;
+    }
+}
@@ -0,0 +1,40 @@
+import java.util.Arrays;
+
+// Collects the direction changes of a game as it is played. Only key presses
+// are stored, so a whole game is usually a few hundred bytes.
+public class ReplayRecorder {
+
+    private final int level;
+    private final int ghostCount;
+    private final long levelHash;
+    private final long seed;
+    private long[] ticks = new long[64];
+    private Direction[] directions = new Direction[64];
+    private int count;
+    private Direction last;
+
+    public ReplayRecorder(int level, int ghostCount, long seed) {
+        this.level = level;
+        this.ghostCount = ghostCount;
+        this.levelHash = Levels.hash(level);
+        this.seed = seed;
+    }
+
+    // Call with the engine's tick count just before the step the input is applied on
+    public void record(long tick, Direction direction) {
+        // Repeating the current direction changes nothing in the simulation
+        if (direction == last) return;
+        if (count == ticks.length) {
+            ticks = Arrays.copyOf(ticks, count * 2);
+            directions = Arrays.copyOf(directions, count * 2);
+        }
+        ticks[count] = tick;
+        directions[count] = direction;
+        count++;
+        last = direction;
+    }
+
+    public Replay finish(long totalTicks, int score) {
+        return new Replay(level, ghostCount, levelHash, seed, totalTicks, score, Arrays.copyOf(ticks, count), Arrays.copyOf(directions, count));
+    }
+}
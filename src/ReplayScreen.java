@@ -0,0 +1,65 @@
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+
+// Plays a Replay back at normal speed with the regular renderer
+public class ReplayScreen {
+
+    public static void show(Stage stage, Replay replay) {
+        ReplayPlayer player = new ReplayPlayer(replay);
+        GameRenderer renderer = new GameRenderer(player.getEngine());
+        GameClock clock = new GameClock();
+
+        Label status = new Label("Replay");
+        status.setStyle("-fx-font-size: 14px; -fx-text-fill: yellow; -fx-font-weight: bold;");
+
+        Button backButton = new Button("Back to Menu");
+        backButton.setStyle(
+                "-fx-background-color: rgba(100,149,237,0.94); " +
+                        "-fx-text-fill: white; " +
+                        "-fx-font-weight: bold; " +
+                        "-fx-font-size: 14px;"
+        );
+
+        HBox topBar = new HBox(10, status, backButton);
+        topBar.setAlignment(Pos.TOP_RIGHT);
+        topBar.setPadding(new Insets(6));
+        topBar.setPickOnBounds(false);
+
+        StackPane root = new StackPane(renderer.getView(), topBar);
+        StackPane.setAlignment(topBar, Pos.TOP_RIGHT);
+
+        AnimationTimer timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                int steps = clock.advance();
+                for (int i = 0; i < steps && !player.isFinished(); i++) {
+                    player.step();
+                }
+                renderer.render(player.isFinished() ? 1 : clock.alpha());
+                if (player.isFinished()) {
+                    status.setText("Replay finished - score " + player.getEngine().getScore());
+                    stop();
+                }
+            }
+        };
+
+        backButton.setOnAction(e -> {
+            timer.stop();
+            MenuScreen.show(stage);
+        });
+
+        stage.setScene(new Scene(root));
+        stage.setTitle("Pac-Man Replay");
+        stage.show();
+
+        clock.start();
+        timer.start();
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+// First-move table for a static maze: firstMove(from, to) returns the direction
+// (0 up, 1 down, 2 left, 3 right) of the first step on a shortest path, or -1.
+// Every source tile is solved up front, which costs tiles^2 bytes, so a table
+// is only built for mazes of up to EAGER_TILE_LIMIT tiles; larger mazes route
+// with FlowFields instead.
+public class RoutingTable {
+
+    public static final int EAGER_TILE_LIMIT = 1024;
+
+    private static final int[] DR = {-1, 1, 0, 0};
+    private static final int[] DC = {0, 0, -1, 1};
+
+    private final int[][] map;
+    private final int rows;
+    private final int cols;
+    private final byte[][] eagerRows;
+
+    // Scratch space for building rows, reused across BFS runs
+    private final int[] queue;
+    private final byte[] scratch;
+
+    public RoutingTable(int[][] map) {
+        this.rows = map.length;
+        this.cols = map[0].length;
+        this.map = new int[rows][];
+        for (int r = 0; r < rows; r++) this.map[r] = map[r].clone();
+
+        int tiles = rows * cols;
+        if (tiles > EAGER_TILE_LIMIT) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " maze is too large for a routing table ("
+                    + tiles + " tiles, limit " + EAGER_TILE_LIMIT + ")");
+        }
+        this.queue = new int[tiles];
+        this.scratch = new byte[tiles];
+
+        eagerRows = new byte[tiles][];
+        for (int i = 0; i < tiles; i++) eagerRows[i] = solve(i);
+    }
+
+    // True if a table can be built for the maze
+    public static boolean fits(int[][] map) {
+        return map.length * map[0].length <= EAGER_TILE_LIMIT;
+    }
+
+    public int firstMove(int fromRow, int fromCol, int toRow, int toCol) {
+        if (fromRow < 0 || fromRow >= rows || fromCol < 0 || fromCol >= cols) return -1;
+        if (toRow < 0 || toRow >= rows || toCol < 0 || toCol >= cols) return -1;
+        if (fromRow == toRow && fromCol == toCol) return -1;
+        return eagerRows[fromRow * cols + fromCol][toRow * cols + toCol];
+    }
+
+    // BFS from source in the same neighbour order the ghosts always used, so
+    // ties between equal-length paths resolve to the same direction
+    private byte[] solve(int source) {
+        byte[] firstMove = scratch;
+        Arrays.fill(firstMove, (byte) -1);
+        boolean[] visited = new boolean[rows * cols];
+
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        visited[source] = true;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int r = current / cols, c = current % cols;
+            for (int d = 0; d < 4; d++) {
+                int nr = r + DR[d];
+                int nc = c + DC[d];
+                if (nr < 0 || nr >= rows || nc < 0 || nc >= cols) continue;
+                int next = nr * cols + nc;
+                if (visited[next] || map[nr][nc] != 0) continue;
+                visited[next] = true;
+                firstMove[next] = current == source ? (byte) d : firstMove[current];
+                queue[tail++] = next;
+            }
+        }
+        return firstMove.clone();
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
@@ -0,0 +1,158 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Checks the migrations and the indexes behind every query the app issues.
+// Builds a fresh embedded H2 database through Migrations, fills it with
+// sample users and results, then asks H2 for each query's plan and fails if
+// the query scans the table, does not use the index meant for it, or - for
+// top-K and paged queries - sorts its rows after reading them instead of
+// reading them in index order.
+// Run it after adding a query or changing an index; it exits 1 on any failure.
+//
+// Usage: SchemaCheck [--results N]   (needs the H2 jar on the classpath)
+public class SchemaCheck {
+
+    private static final int USERS = 200;
+    private static final int LEVELS = 5;
+
+    // A query as the app issues it, sample parameters, the index it must use,
+    // and whether its ORDER BY must come from that index
+    private static class Query {
+        final String name;
+        final String sql;
+        final Object[] params;
+        final String index;
+        final boolean sorted;
+
+        Query(String name, String sql, Object[] params, String index, boolean sorted) {
+            this.name = name;
+            this.sql = sql;
+            this.params = params;
+            this.index = index;
+            this.sorted = sorted;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int results = 20_000;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--results")) results = Integer.parseInt(args[++i]);
+        }
+        System.setProperty("db.profile", "h2");
+        System.setProperty("db.h2.url", "jdbc:h2:mem:schemacheck;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        ConnectionPool pool = DatabaseConnection.getPool();
+        int failed = 0;
+
+        // A second run must find everything applied and every checksum unchanged
+        Migrations.migrate(pool);
+        List<Migrations.Script> scripts = Migrations.scripts();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM schema_migrations")) {
+            rs.next();
+            boolean ok = rs.getInt(1) == scripts.size();
+            System.out.printf("migrations: %d of %d recorded%s%n", rs.getInt(1), scripts.size(), ok ? "" : "  FAILED");
+            if (!ok) failed++;
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Query[] queries = {
+                new Query("UserDAO.login", UserDAO.LOGIN_SQL,
+                        new Object[]{"player7", "secret"}, "IDX_USERS_USERNAME", false),
+                new Query("HistoryDAO.firstPage", HistoryDAO.FIRST_PAGE_SQL,
+                        new Object[]{"player7", HistoryDAO.PAGE_SIZE + 1}, "IDX_RESULTS_USER_PLAYED", true),
+                new Query("HistoryDAO.nextPage", HistoryDAO.NEXT_PAGE_SQL,
+                        new Object[]{"player7", now, now, 1000L, HistoryDAO.PAGE_SIZE + 1},
+                        "IDX_RESULTS_USER_PLAYED", true),
+                new Query("Leaderboard.bestScores", Leaderboard.BEST_SCORES_SQL,
+                        new Object[]{Leaderboard.TOP_K}, "IDX_RESULTS_SCORE", true),
+                new Query("Leaderboard.fastestClears", Leaderboard.FASTEST_CLEARS_SQL,
+                        new Object[]{Leaderboard.TOP_K}, "IDX_RESULTS_CLEAR_TIME", true),
+                new Query("Leaderboard.levelBestScores", Leaderboard.LEVEL_BEST_SCORES_SQL,
+                        new Object[]{2, Leaderboard.TOP_K}, "IDX_RESULTS_LEVEL_SCORE", true),
+                new Query("Leaderboard.levelFastestClears", Leaderboard.LEVEL_FASTEST_CLEARS_SQL,
+                        new Object[]{2, Leaderboard.TOP_K}, "IDX_RESULTS_LEVEL_CLEAR_TIME", true),
+                new Query("ReplayPlayer.topReplays", ReplayPlayer.TOP_REPLAYS_SQL,
+                        new Object[]{20}, "IDX_RESULTS_SCORE", true),
+                new Query("ReplayPlayer.load", ReplayPlayer.REPLAY_SQL,
+                        new Object[]{1000L}, "PRIMARY_KEY", false),
+        };
+
+        try (Connection conn = pool.getConnection()) {
+            seed(conn, results);
+            for (Query query : queries) {
+                if (!check(conn, query)) failed++;
+            }
+        }
+
+        System.out.println(failed == 0 ? "All queries use their indexes" : failed + " check(s) failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    // Enough rows that a table scan is never the cheapest plan, with statistics refreshed
+    private static void seed(Connection conn, int results) throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(UserDAO.INSERT_SQL)) {
+            for (int i = 0; i < USERS; i++) {
+                stmt.setString(1, "player" + i);
+                stmt.setString(2, "secret");
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(ScoreWriter.INSERT_SQL)) {
+            long start = System.currentTimeMillis() - 90L * 24 * 3600 * 1000;
+            for (int i = 0; i < results; i++) {
+                stmt.setString(1, "player" + random.nextInt(USERS));
+                stmt.setInt(2, random.nextInt(5000));
+                stmt.setInt(3, 30 + random.nextInt(600));
+                stmt.setInt(4, random.nextInt(LEVELS));
+                stmt.setBoolean(5, random.nextInt(4) == 0);
+                stmt.setTimestamp(6, new Timestamp(start + i * 60_000L));
+                stmt.setBytes(7, random.nextInt(2) == 0 ? null : new byte[16]);
+                stmt.addBatch();
+                if (i % 1000 == 999) stmt.executeBatch();
+            }
+            stmt.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE");
+        }
+    }
+
+    private static boolean check(Connection conn, Query query) throws Exception {
+        String plan;
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query.sql)) {
+            for (int i = 0; i < query.params.length; i++) stmt.setObject(i + 1, query.params[i]);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                plan = rs.getString(1);
+            }
+        }
+        String upper = plan.toUpperCase(Locale.ROOT);
+        String problem = null;
+        if (upper.contains(".TABLESCAN")) {
+            problem = "scans the table";
+        } else if (!upper.contains("." + query.index)) {
+            problem = "does not use " + query.index;
+        } else if (query.sorted && !upper.contains("INDEX SORTED")) {
+            // H2 notes "index sorted" only when the index order alone satisfies the ORDER BY
+            problem = "sorts after reading instead of reading " + query.index + " in order";
+        }
+        boolean ok = problem == null;
+        System.out.printf("%-32s %s%n", query.name,
+                ok ? "uses " + query.index + (query.sorted ? ", index sorted" : "") : "FAILED: " + problem);
+        if (!ok) System.out.println("    " + plan.replace("\n", "\n    "));
+        return ok;
+    }
+}
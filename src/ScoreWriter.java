@@ -0,0 +1,328 @@
+import java.io.*;
+import java.nio.file.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind persistence for finished games. submit() only enqueues; a
+// background thread appends each result to a local journal, inserts
+// batches into game_results and retries with backoff while MySQL is down.
+// Results still in the journal at startup are replayed. Each journal starts
+// with MAGIC and a format version, so a reader can tell which record layout
+// follows; bump FORMAT and branch in read() when the record changes. A result the
+// database rejects outright (a constraint violation, an oversized replay) is
+// moved to a dead-letter file so it cannot hold up the results behind it.
+public class ScoreWriter {
+
+    static final Path JOURNAL = Paths.get(System.getProperty("user.home"), ".pacman", "pending_scores.journal");
+    // Results the database refused; kept in journal format for inspection
+    static final Path DEAD_LETTERS = JOURNAL.resolveSibling("rejected_scores.journal");
+
+    private static final int MAGIC = 0x5041434A; // "PACJ"
+    // Per record: username, score, time, level, cleared, played at, replay length (-1 if none) and bytes
+    private static final int FORMAT = 1;
+
+    private static final int MAX_BATCH = 50;
+    private static final long MIN_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    static final String INSERT_SQL =
+            "INSERT INTO game_results (username,score,time_taken,level,cleared,played_at,replay) VALUES (?,?,?,?,?,?,?)";
+
+    // Writes rows to game_results in one transaction; replaced by ScoreWriterCheck to simulate failures
+    interface Inserter {
+        void insert(List<PendingScore> rows) throws Exception;
+    }
+
+    private static final BlockingQueue<PendingScore> incoming = new LinkedBlockingQueue<>();
+    private static Thread worker;
+
+    public static class PendingScore {
+        private final String username;
+        private final int score;
+        private final int timeTaken;
+        private final int level;
+        private final boolean cleared;
+        private final LocalDateTime playedAt;
+        private final byte[] replay; // encoded Replay, or null
+
+        public PendingScore(String username, int score, int timeTaken, int level, boolean cleared, LocalDateTime playedAt) {
+            this(username, score, timeTaken, level, cleared, playedAt, null);
+        }
+
+        public PendingScore(String username, int score, int timeTaken, int level, boolean cleared, LocalDateTime playedAt,
+                            byte[] replay) {
+            this.username = username;
+            this.score = score;
+            this.timeTaken = timeTaken;
+            this.level = level;
+            this.cleared = cleared;
+            this.playedAt = playedAt;
+            this.replay = replay;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getTimeTaken() {
+            return timeTaken;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public boolean isCleared() {
+            return cleared;
+        }
+
+        public LocalDateTime getPlayedAt() {
+            return playedAt;
+        }
+
+        public byte[] getReplay() {
+            return replay;
+        }
+    }
+
+    // Starts the writer thread; anything left in the journal is queued first
+    public static synchronized void start() {
+        if (worker != null) return;
+        worker = new Thread(ScoreWriter::run, "score-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Never blocks: safe to call from the FX thread
+    public static void submit(PendingScore result) {
+        start();
+        incoming.add(result);
+    }
+
+    private static void run() {
+        List<PendingScore> pending = readJournal(JOURNAL);
+        long backoff = MIN_BACKOFF_MS;
+        try {
+            // Drops a torn trailing record so later appends stay readable
+            rewriteJournal(pending);
+        } catch (IOException e) {
+            Log.error(Log.Category.DB, "Could not rewrite score journal %s: %s", JOURNAL, e);
+        }
+
+        while (true) {
+            try {
+                List<PendingScore> fresh = new ArrayList<>();
+                if (pending.isEmpty()) {
+                    fresh.add(incoming.take());
+                }
+                incoming.drainTo(fresh);
+                if (!fresh.isEmpty()) {
+                    pending.addAll(fresh);
+                    appendJournal(JOURNAL, fresh);
+                }
+
+                if (saveNext(pending, ScoreWriter::insert, backoff)) {
+                    backoff = MIN_BACKOFF_MS;
+                } else {
+                    // Wake early for new results so they still reach the journal promptly
+                    PendingScore next = incoming.poll(backoff, TimeUnit.MILLISECONDS);
+                    if (next != null) incoming.add(next);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                Log.error(Log.Category.DB, "Score writer: %s", e);
+            }
+        }
+    }
+
+    // Saves the oldest batch of pending results and rewrites the journal to what
+    // is left; false, with unsaved rows kept, if a transient failure means retry later
+    static boolean saveNext(List<PendingScore> pending, Inserter inserter, long backoff) throws IOException {
+        List<PendingScore> batch = pending.subList(0, Math.min(MAX_BATCH, pending.size()));
+        boolean saved = true;
+        try {
+            try {
+                inserter.insert(batch);
+                for (PendingScore r : batch) HistoryDAO.invalidate(r.getUsername());
+                batch.clear();
+            } catch (Exception e) {
+                if (!isPermanent(e)) throw e;
+                Log.warn(Log.Category.DB, "Score batch rejected, saving one at a time: %s", e.getMessage());
+                insertEach(batch, inserter);
+            }
+        } catch (Exception e) {
+            Log.warn(Log.Category.DB, "Score save failed, retrying in %d ms: %s", backoff, e.getMessage());
+            saved = false;
+        }
+        // Rows already saved or rejected one at a time must not be retried
+        rewriteJournal(pending);
+        return saved;
+    }
+
+    private static void insert(List<PendingScore> batch) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                for (PendingScore r : batch) {
+                    stmt.setString(1, r.getUsername());
+                    stmt.setInt(2, r.getScore());
+                    stmt.setInt(3, r.getTimeTaken());
+                    stmt.setInt(4, r.getLevel());
+                    stmt.setBoolean(5, r.isCleared());
+                    stmt.setTimestamp(6, Timestamp.valueOf(r.getPlayedAt()));
+                    stmt.setBytes(7, r.getReplay());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // Saves the rows one by one, removing each from the batch once it is saved
+    // or dead-lettered; a transient failure is thrown with the rest left in place
+    private static void insertEach(List<PendingScore> batch, Inserter inserter) throws Exception {
+        while (!batch.isEmpty()) {
+            PendingScore r = batch.get(0);
+            try {
+                inserter.insert(List.of(r));
+                HistoryDAO.invalidate(r.getUsername());
+            } catch (Exception e) {
+                if (!isPermanent(e)) throw e;
+                Log.error(Log.Category.DB, "Score for %s rejected, moved to %s: %s",
+                        r.getUsername(), DEAD_LETTERS, e.getMessage());
+                appendJournal(DEAD_LETTERS, List.of(r));
+            }
+            batch.remove(0);
+        }
+    }
+
+    // True if retrying cannot help: the data itself was refused (SQLState
+    // class 22 data exception or 23 constraint violation) anywhere in the cause
+    // or next-exception chain. Everything else, including a BatchUpdateException
+    // wrapping a lost connection or a lock-wait timeout, is retried with backoff
+    static boolean isPermanent(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (!(t instanceof SQLException)) continue;
+            for (SQLException s = (SQLException) t; s != null; s = s.getNextException()) {
+                if (s instanceof SQLIntegrityConstraintViolationException) return true;
+                String state = s.getSQLState();
+                if (state != null && (state.startsWith("22") || state.startsWith("23"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT);
+    }
+
+    private static void write(DataOutputStream out, PendingScore r) throws IOException {
+        out.writeUTF(r.getUsername());
+        out.writeInt(r.getScore());
+        out.writeInt(r.getTimeTaken());
+        out.writeInt(r.getLevel());
+        out.writeBoolean(r.isCleared());
+        out.writeUTF(r.getPlayedAt().toString());
+        byte[] replay = r.getReplay();
+        out.writeInt(replay == null ? -1 : replay.length);
+        if (replay != null) out.write(replay);
+    }
+
+    static void appendJournal(Path journal, List<PendingScore> results) throws IOException {
+        Files.createDirectories(journal.getParent());
+        boolean fresh = !Files.exists(journal) || Files.size(journal) == 0;
+        try (FileOutputStream file = new FileOutputStream(journal.toFile(), true);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            if (fresh) writeHeader(out);
+            for (PendingScore r : results) write(out, r);
+            out.flush();
+            file.getFD().sync();
+        }
+    }
+
+    // Replaces the journal with the results that are still unsaved
+    private static void rewriteJournal(List<PendingScore> results) throws IOException {
+        if (results.isEmpty()) {
+            Files.deleteIfExists(JOURNAL);
+            return;
+        }
+        Path tmp = JOURNAL.resolveSibling(JOURNAL.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            writeHeader(out);
+            for (PendingScore r : results) write(out, r);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, JOURNAL, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Reads every complete record
+    static List<PendingScore> readJournal(Path journal) {
+        List<PendingScore> results = new ArrayList<>();
+        if (!Files.exists(journal)) return results;
+        int magic = MAGIC, format = FORMAT;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journal)))) {
+            magic = in.readInt();
+            format = in.readUnsignedShort();
+            if (magic == MAGIC && format == FORMAT) {
+                while (true) results.add(read(in));
+            }
+        } catch (EOFException e) {
+            // End of journal, or a record torn by a crash mid-append
+        } catch (Exception e) {
+            Log.error(Log.Category.DB, "Could not read score journal %s: %s", journal, e);
+        }
+        if (magic != MAGIC || format != FORMAT) {
+            // Not a journal this version writes: keep it rather than overwrite it
+            Path aside = journal.resolveSibling(journal.getFileName() + ".unreadable");
+            Log.error(Log.Category.DB, "Score journal %s has an unknown header, moved to %s", journal, aside);
+            try {
+                Files.move(journal, aside, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                Log.error(Log.Category.DB, "Could not move score journal %s: %s", journal, e);
+            }
+            return results;
+        }
+        if (!results.isEmpty()) {
+            Log.info(Log.Category.DB, "Replaying %d unsaved score(s) from %s", results.size(), journal);
+        }
+        return results;
+    }
+
+    private static PendingScore read(DataInputStream in) throws IOException {
+        String username = in.readUTF();
+        int score = in.readInt();
+        int timeTaken = in.readInt();
+        int level = in.readInt();
+        boolean cleared = in.readBoolean();
+        LocalDateTime playedAt = LocalDateTime.parse(in.readUTF());
+        byte[] replay = null;
+        int length = in.readInt();
+        if (length >= 0) {
+            replay = new byte[length];
+            in.readFully(replay);
+        }
+        return new PendingScore(username, score, timeTaken, level, cleared, playedAt, replay);
+    }
+}
@@ -0,0 +1,68 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Wire format between GameServer and its clients. Every message is a frame:
+// an unsigned 16-bit length, then a type byte and its payload, big-endian.
+// Levels are 0-based; positions are in half pixels, so they fit in a short
+// for mazes up to 511 tiles across.
+public class ServerProtocol {
+
+    public static final int DEFAULT_PORT = 7777;
+    public static final int MAX_FRAME = 0xFFFF;
+    public static final int POSITION_SCALE = 2;
+    public static final int MAX_NAME_LENGTH = 32;
+
+    // Client to server
+    public static final byte JOIN = 1;    // int level, long seed (0 picks one), int ghosts (0 plays the level's), string name
+    public static final byte INPUT = 2;   // byte direction 0-3 (Direction.ordinal), applied on the next tick
+    public static final byte LEAVE = 3;   // ends the current game with OVER; JOIN again after it
+
+    // Server to client
+    public static final byte JOINED = 11; // int game id, int level, long seed, short rows, short cols, short ghosts, byte type per ghost
+    public static final byte STATE = 12;  // int tick, int score, short pac x, short pac y, byte pac direction,
+                                          // short ghosts, (short x, short y, byte state) per ghost,
+                                          // short eaten, int tile (row * cols + col) per pellet eaten since the last STATE
+    public static final byte OVER = 13;   // byte status (GameEngine.Status ordinal; RUNNING if the server stopped it), int score, int ticks
+    public static final byte ERROR = 14;  // string message
+
+    // Starts a frame with room for `payload` bytes; returns its start, or -1 if the buffer is too full
+    public static int begin(ByteBuffer out, byte type, int payload) {
+        if (payload + 1 > MAX_FRAME || out.remaining() < payload + 3) return -1;
+        int start = out.position();
+        out.putShort((short) 0);
+        out.put(type);
+        return start;
+    }
+
+    // Fills in the length of the frame started at `start`
+    public static void end(ByteBuffer out, int start) {
+        out.putShort(start, (short) (out.position() - start - 2));
+    }
+
+    // Length of the complete frame at the buffer's position, or -1 if it has not all arrived
+    public static int available(ByteBuffer in) {
+        if (in.remaining() < 2) return -1;
+        int length = in.getShort(in.position()) & 0xFFFF;
+        return in.remaining() < length + 2 ? -1 : length;
+    }
+
+    public static void putString(ByteBuffer out, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    public static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static int stringSize(String s) {
+        return 2 + s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public static short position(double pixels) {
+        return (short) Math.round(pixels * POSITION_SCALE);
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.Arrays;
+
+// Uniform grid broadphase: entities are bucketed by the tile their center is in,
+// as intrusive doubly linked lists held in int arrays. move() relinks an entity
+// only when it crosses into another tile, and neither moves nor queries allocate.
+// Anything within one tile size of a point is in its 3x3 block of cells.
+//
+// To visit entities near (x, y):
+//   for (int cell : the 3x3 block from cellRow/cellCol)
+//     for (int id = first(cell); id != -1; id = next(id)) ...
+public class SpatialGrid {
+
+    private final int rows, cols;
+    private final double cellSize;
+    private final int[] head;   // first entity per cell, or -1
+    private final int[] next;   // next entity in the same cell, or -1
+    private final int[] prev;   // previous entity in the same cell, or -1
+    private final int[] cellOf; // cell each entity is in, or -1 before its first move
+
+    public SpatialGrid(int rows, int cols, double cellSize, int capacity) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cellSize = cellSize;
+        this.head = new int[rows * cols];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.cellOf = new int[capacity];
+        Arrays.fill(head, -1);
+        Arrays.fill(cellOf, -1);
+    }
+
+    // Places or moves entity id to the cell containing (x, y)
+    public void move(int id, double x, double y) {
+        int cell = cellIndex(cellRow(y), cellCol(x));
+        int old = cellOf[id];
+        if (old == cell) return;
+        if (old != -1) {
+            if (prev[id] != -1) next[prev[id]] = next[id];
+            else head[old] = next[id];
+            if (next[id] != -1) prev[next[id]] = prev[id];
+        }
+        prev[id] = -1;
+        next[id] = head[cell];
+        if (head[cell] != -1) prev[head[cell]] = id;
+        head[cell] = id;
+        cellOf[id] = cell;
+    }
+
+    public int cellRow(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y / cellSize)));
+    }
+
+    public int cellCol(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) (x / cellSize)));
+    }
+
+    // Cell index for a row and column, or -1 outside the grid
+    public int cellIndex(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) return -1;
+        return row * cols + col;
+    }
+
+    // First entity in a cell (-1 if empty or outside the grid)
+    public int first(int cell) {
+        return cell < 0 ? -1 : head[cell];
+    }
+
+    public int next(int id) {
+        return next[id];
+    }
+}
@@ -0,0 +1,209 @@
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+// Every sprite the game draws, prepared once per process in a single image:
+// the ghost PNGs decoded at their drawn size, and Pac-Man rasterized for each
+// direction and whole-degree mouth angle. Drawing a sprite is then an unscaled
+// copy of one cell, with no decoding, scaling or arc filling during play.
+// Main builds it on a background thread at startup; get() waits for that if a
+// game starts first.
+//
+// Layout: one row of ghost cells (one per type, then the frightened ghost),
+// then one row of Pac-Man cells per direction, mouth angles 0..MAX_MOUTH_ANGLE.
+public class SpriteAtlas {
+
+    // Sizes the sprites are drawn at, matching Ghost.getSize() and PacMan.getSize()
+    public static final int GHOST_SIZE = 40;
+    public static final int PACMAN_SIZE = 22;
+    public static final int MAX_MOUTH_ANGLE = 45;
+
+    private static final int PADDING = 2; // keeps filtering from bleeding in neighbouring cells
+    private static final int GHOST_CELL = GHOST_SIZE + PADDING;
+    private static final int PACMAN_CELL = PACMAN_SIZE + PADDING;
+    private static final int SUBSAMPLES = 4; // per axis, for anti-aliased edges
+
+    private static final Ghost.GhostType[] GHOST_TYPES = Ghost.GhostType.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private static SpriteAtlas shared;
+
+    private final WritableImage image;
+    private final boolean[] hasGhostImage = new boolean[GHOST_TYPES.length];
+
+    private SpriteAtlas() {
+        int width = Math.max((GHOST_TYPES.length + 1) * GHOST_CELL, (MAX_MOUTH_ANGLE + 1) * PACMAN_CELL);
+        int height = GHOST_CELL + DIRECTIONS.length * PACMAN_CELL;
+        int[] pixels = new int[width * height];
+
+        for (Ghost.GhostType type : GHOST_TYPES) {
+            int left = type.ordinal() * GHOST_CELL;
+            if (!copyGhostImage(type, pixels, width, left)) {
+                fillCircle(pixels, width, left, 0, GHOST_SIZE, argb(fallbackColor(type)));
+            }
+        }
+        fillCircle(pixels, width, GHOST_TYPES.length * GHOST_CELL, 0, GHOST_SIZE, argb(Color.DARKBLUE));
+
+        for (Direction direction : DIRECTIONS) {
+            for (int angle = 0; angle <= MAX_MOUTH_ANGLE; angle++) {
+                rasterizePacMan(pixels, width, angle * PACMAN_CELL, pacManTop(direction), direction, angle);
+            }
+        }
+
+        image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+    }
+
+    // Builds the atlas if it is not built yet; Main calls this from a background thread
+    public static void load() {
+        get();
+    }
+
+    public static synchronized SpriteAtlas get() {
+        if (shared == null) {
+            long start = System.nanoTime();
+            shared = new SpriteAtlas();
+            Log.info(Log.Category.ASSETS, "Sprite atlas %dx%d built in %.1f ms",
+                    (int) shared.image.getWidth(), (int) shared.image.getHeight(), (System.nanoTime() - start) / 1e6);
+        }
+        return shared;
+    }
+
+    // Draws a ghost with its top-left corner at (x, y). As before the atlas, a ghost
+    // whose image loaded looks the same in every state; only the plain circle
+    // used without an image turns dark blue when frightened
+    public void drawGhost(GraphicsContext gc, Ghost.GhostType type, boolean frightened, double x, double y) {
+        int cell = frightened && !hasGhostImage[type.ordinal()] ? GHOST_TYPES.length : type.ordinal();
+        gc.drawImage(image, cell * GHOST_CELL, 0, GHOST_SIZE, GHOST_SIZE, x, y, GHOST_SIZE, GHOST_SIZE);
+    }
+
+    // Draws Pac-Man with its top-left corner at (x, y), mouth angle rounded to a whole degree
+    public void drawPacMan(GraphicsContext gc, Direction direction, double mouthAngle, double x, double y) {
+        int angle = (int) Math.max(0, Math.min(MAX_MOUTH_ANGLE, Math.round(mouthAngle)));
+        gc.drawImage(image, angle * PACMAN_CELL, pacManTop(direction), PACMAN_SIZE, PACMAN_SIZE,
+                x, y, PACMAN_SIZE, PACMAN_SIZE);
+    }
+
+    private static int pacManTop(Direction direction) {
+        return GHOST_CELL + direction.ordinal() * PACMAN_CELL;
+    }
+
+    // Decodes the ghost's PNG straight to GHOST_SIZE and copies it into its cell
+    private boolean copyGhostImage(Ghost.GhostType type, int[] pixels, int width, int left) {
+        String file = imageFile(type);
+        try {
+            var url = SpriteAtlas.class.getResource("/icons/" + file);
+            String source = url != null ? url.toExternalForm() : "file:src/icons/" + file;
+            Image ghostImage = new Image(source, GHOST_SIZE, GHOST_SIZE, false, true);
+            if (ghostImage.isError() || ghostImage.getWidth() == 0) {
+                Log.warn(Log.Category.ASSETS, "%s ghost image failed to load.", type);
+                return false;
+            }
+            PixelReader reader = ghostImage.getPixelReader();
+            int w = Math.min(GHOST_SIZE, (int) ghostImage.getWidth());
+            int h = Math.min(GHOST_SIZE, (int) ghostImage.getHeight());
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) pixels[y * width + left + x] = reader.getArgb(x, y);
+            }
+            hasGhostImage[type.ordinal()] = true;
+            return true;
+        } catch (Exception e) {
+            Log.warn(Log.Category.ASSETS, "%s ghost image failed to load with exception: %s", type, e.getMessage());
+            return false;
+        }
+    }
+
+    private static String imageFile(Ghost.GhostType type) {
+        return switch (type) {
+            case BLINKY -> "red_ghost.png";
+            case PINKY -> "pink_ghost.png";
+            case INKY -> "blue_ghost.png";
+            case CLYDE -> "orange_ghost.png";
+        };
+    }
+
+    private static Color fallbackColor(Ghost.GhostType type) {
+        return switch (type) {
+            case BLINKY -> Color.RED;
+            case PINKY -> Color.PINK;
+            case INKY -> Color.CYAN;
+            case CLYDE -> Color.ORANGE;
+        };
+    }
+
+    private static void fillCircle(int[] pixels, int width, int left, int top, int size, int color) {
+        double r = size / 2.0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int covered = 0;
+                for (int sy = 0; sy < SUBSAMPLES; sy++) {
+                    for (int sx = 0; sx < SUBSAMPLES; sx++) {
+                        double dx = x + (sx + 0.5) / SUBSAMPLES - r;
+                        double dy = y + (sy + 0.5) / SUBSAMPLES - r;
+                        if (dx * dx + dy * dy <= r * r) covered++;
+                    }
+                }
+                pixels[(top + y) * width + left + x] = withCoverage(color, covered);
+            }
+        }
+    }
+
+    // The shape GameRenderer used to fill per frame: a yellow disc with a wedge-shaped
+    // mouth facing the direction, and a black eye offset towards it
+    private static void rasterizePacMan(int[] pixels, int width, int left, int top, Direction direction, int mouthAngle) {
+        double r = PACMAN_SIZE / 2.0;
+        double facing = switch (direction) {
+            case RIGHT -> 0;
+            case UP -> 90;
+            case LEFT -> 180;
+            case DOWN -> 270;
+        };
+        double eyeX = PACMAN_SIZE / 2.7 + direction.dc * 5;
+        double eyeY = PACMAN_SIZE / 4.5;
+        double eyeRadius = 2.5;
+
+        for (int y = 0; y < PACMAN_SIZE; y++) {
+            for (int x = 0; x < PACMAN_SIZE; x++) {
+                int yellow = 0, black = 0;
+                for (int sy = 0; sy < SUBSAMPLES; sy++) {
+                    for (int sx = 0; sx < SUBSAMPLES; sx++) {
+                        double px = x + (sx + 0.5) / SUBSAMPLES;
+                        double py = y + (sy + 0.5) / SUBSAMPLES;
+                        double ex = px - eyeX - eyeRadius, ey = py - eyeY - eyeRadius;
+                        if (ex * ex + ey * ey <= eyeRadius * eyeRadius) {
+                            black++;
+                            continue;
+                        }
+                        double dx = px - r, dy = py - r;
+                        if (dx * dx + dy * dy > r * r) continue;
+                        // Angles run counter-clockwise on screen, so y is flipped
+                        double angle = Math.toDegrees(Math.atan2(-dy, dx)) - facing;
+                        angle = ((angle % 360) + 540) % 360 - 180;
+                        if (Math.abs(angle) >= mouthAngle) yellow++;
+                    }
+                }
+                int covered = yellow + black;
+                if (covered == 0) continue;
+                // Blend yellow and black by how many samples each covered
+                int level = 255 * yellow / covered;
+                int color = 0xFF000000 | (level << 16) | (level << 8);
+                pixels[(top + y) * width + left + x] = withCoverage(color, covered);
+            }
+        }
+    }
+
+    private static int withCoverage(int color, int covered) {
+        int alpha = 255 * covered / (SUBSAMPLES * SUBSAMPLES);
+        return (alpha << 24) | (color & 0xFFFFFF);
+    }
+
+    private static int argb(Color color) {
+        return 0xFF000000
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+}
@@ -0,0 +1,104 @@
+import javafx.animation.AnimationTimer;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+// Cold-start pipeline and launch timing. Main shows the login screen at once
+// and runs preload() on a background thread while the player types, so the
+// first game does not pay for driver loading, sprite decoding, level parsing
+// or an interpreted game loop. Time to the login screen and to each game's
+// first frame are logged under the game category.
+public class Startup {
+
+    private static final long WARMUP_TICKS = 30_000;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private static boolean firstGameShown;
+
+    // Warms up, in order: button icons, the sprite atlas, every level in the
+    // pack with its routes, and a short headless run of the game tick so the
+    // JIT has compiled it. Then the JDBC driver, schema check and first pooled
+    // connection are warmed on their own thread, so a slow or unreachable
+    // database cannot hold up the rest
+    public static void preload() {
+        long start = System.nanoTime();
+        long step = start;
+        StringBuilder timings = new StringBuilder();
+
+        Icons.preload();
+        step = lap(timings, "icons", step);
+
+        SpriteAtlas.load();
+        step = lap(timings, "sprites", step);
+
+        for (int level = 0; level < Levels.count(); level++) {
+            Levels.get(level).getRoutes();
+        }
+        step = lap(timings, "levels", step);
+
+        warmUpEngine();
+        lap(timings, "engine", step);
+
+        Log.info(Log.Category.GAME, "Startup preload done in %.0f ms (%s)", (System.nanoTime() - start) / 1e6, timings);
+
+        Thread database = new Thread(Startup::warmUpDatabase, "db-warmup");
+        database.setDaemon(true);
+        database.start();
+    }
+
+    private static void warmUpDatabase() {
+        long start = System.nanoTime();
+        try {
+            DatabaseConnection.getPool().warmUp();
+            Log.info(Log.Category.DB, "Database warm-up done in %.0f ms", (System.nanoTime() - start) / 1e6);
+        } catch (Exception e) {
+            Log.warn(Log.Category.DB, "Database warm-up failed: %s", e.getMessage());
+        }
+    }
+
+    private static long lap(StringBuilder timings, String name, long since) {
+        long now = System.nanoTime();
+        if (timings.length() > 0) timings.append(", ");
+        timings.append(name).append(' ').append(Math.round((now - since) / 1e6)).append(" ms");
+        return now;
+    }
+
+    // Random-input games on every level; a finished game is replaced by the next
+    private static void warmUpEngine() {
+        SplittableRandom random = new SplittableRandom(1);
+        GameEngine engine = null;
+        for (long tick = 0; tick < WARMUP_TICKS; tick++) {
+            if (engine == null || engine.isOver()) {
+                engine = new GameEngine((int) (tick % Levels.count()), random.nextLong());
+            }
+            engine.step((tick & 15) == 0 ? DIRECTIONS[random.nextInt(4)] : null);
+        }
+    }
+
+    // Called right after the login screen's stage is shown; logs the time from JVM
+    // start once that frame has been drawn
+    public static void loginScreenShown() {
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+                Log.info(Log.Category.GAME, "Login screen shown %d ms after launch",
+                        System.currentTimeMillis() - jvmStart);
+            }
+        }.start();
+    }
+
+    // Called when a game draws its first frame, with System.nanoTime() from when it was started
+    public static synchronized void gameFrameShown(int level, long startedNanos) {
+        double latency = (System.nanoTime() - startedNanos) / 1e6;
+        if (!firstGameShown) {
+            firstGameShown = true;
+            long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+            Log.info(Log.Category.GAME, "First game (level %d) drew its first frame %.1f ms after it was started, %d ms after launch",
+                    level + 1, latency, System.currentTimeMillis() - jvmStart);
+        } else {
+            Log.info(Log.Category.GAME, "Level %d drew its first frame %.1f ms after it was started", level + 1, latency);
+        }
+    }
+}
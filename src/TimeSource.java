@@ -0,0 +1,6 @@
+// Monotonic time in nanoseconds; swapped out to run the game clock faster than real time or by hand
+public interface TimeSource {
+    TimeSource SYSTEM = System::nanoTime;
+
+    long nanoTime();
+}
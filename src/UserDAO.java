@@ -1,15 +1,14 @@
-
 import java.sql.*;
 
 public class UserDAO {
 
+    // Both look users up through idx_users_username
+    static final String INSERT_SQL = "INSERT INTO users(username, password) VALUES(?, ?)";
+    static final String LOGIN_SQL = "SELECT * FROM users WHERE username=? AND password=?";
+
     public static boolean register(User user) {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement("INSERT INTO users(username, password) VALUES(?, ?)");
-            stmt.setString(1, user.getUsername());
-            stmt.setString(2, user.getPassword());
-            stmt.executeUpdate();
-            return true;
+        try {
+            return insert(user);
         } catch (SQLException e) {
             System.out.println("Registration Error: " + e.getMessage());
             return false;
@@ -20,16 +19,40 @@ public class UserDAO {
     }
 
     public static boolean login(String username, String password) {
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            PreparedStatement stmt = conn.prepareStatement("SELECT * FROM users WHERE username=? AND password=?");
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-            ResultSet rs = stmt.executeQuery();
-            return rs.next();
+        try {
+            return authenticate(username, password);
         } catch (Exception ex) {
             ex.printStackTrace();
             return false;
         }
     }
-}
 
+    // Adds the user; false if the username is taken. Other failures are thrown
+    public static boolean insert(User user) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            stmt.setString(1, user.getUsername());
+            stmt.setString(2, user.getPassword());
+            stmt.executeUpdate();
+            return true;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            return false;
+        } catch (SQLException e) {
+            // Not every driver uses the subclass; SQLState class 23 is a constraint violation
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) return false;
+            throw e;
+        }
+    }
+
+    // True if the username and password match; database failures are thrown
+    public static boolean authenticate(String username, String password) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(LOGIN_SQL)) {
+            stmt.setString(1, username);
+            stmt.setString(2, password);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
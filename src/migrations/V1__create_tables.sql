@@ -0,0 +1,15 @@
+-- The tables as the app first shipped them. Databases set up before
+-- migrations existed already have them, so this only creates what is missing.
+CREATE TABLE IF NOT EXISTS users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    password VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS game_results (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    score INT NOT NULL,
+    time_taken INT NOT NULL,
+    played_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,6 @@
+-- Results record the level played, whether it was cleared, and a replay.
+-- Databases that already added a column by hand keep it; Migrations skips
+-- an ADD COLUMN whose column exists, so keep one column per statement.
+ALTER TABLE game_results ADD COLUMN level INT NULL;
+ALTER TABLE game_results ADD COLUMN cleared BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE game_results ADD COLUMN replay MEDIUMBLOB NULL;
@@ -0,0 +1,15 @@
+-- One index per query path, with keys in the order the query sorts, so each
+-- query reads its rows in index order and stops at its LIMIT. SchemaCheck
+-- verifies that every query uses its index that way.
+
+-- Login and registration look a user up by name; names are unique
+CREATE UNIQUE INDEX idx_users_username ON users (username);
+
+-- History: one player's results newest first, paged by (played_at, id)
+CREATE INDEX idx_results_user_played ON game_results (username, played_at DESC, id DESC);
+
+-- Leaderboard top-K reads at startup, global and per level
+CREATE INDEX idx_results_score ON game_results (score DESC, time_taken);
+CREATE INDEX idx_results_clear_time ON game_results (cleared, time_taken, score DESC);
+CREATE INDEX idx_results_level_score ON game_results (level, score DESC, time_taken);
+CREATE INDEX idx_results_level_clear_time ON game_results (level, cleared, time_taken, score DESC);